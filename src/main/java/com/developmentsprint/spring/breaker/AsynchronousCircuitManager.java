@@ -0,0 +1,36 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker;
+
+/**
+ * {@link CircuitManager} that can tell whether {@link #queue} runs an invocation on a thread other than the caller's.
+ * 
+ * <p>
+ * Methods returning a {@link java.util.concurrent.Future} are only queued within the circuit on such managers: the queued call waits for the method's future,
+ * so that the circuit covers the asynchronous work, and thus holds an executor thread until the work is done. On any other circuit manager the caller would be
+ * blocked instead, so the method is executed within the circuit and its future handed back as is; the circuit then only covers starting the work.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+public interface AsynchronousCircuitManager extends CircuitManager {
+
+    /**
+     * Return whether {@link #queue} runs the given invocation on a thread other than the caller's.
+     */
+    boolean isAsynchronous(Invoker<?> invoker);
+
+}
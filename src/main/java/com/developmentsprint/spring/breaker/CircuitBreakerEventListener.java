@@ -0,0 +1,85 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker;
+
+/**
+ * Callback interface for observing the executions of circuit breakers, e.g. to attribute time to circuits in a profiler by emitting JDK Flight Recorder
+ * events, or to feed another monitoring system.
+ * 
+ * <p>
+ * Circuit managers that support listeners have none by default; the cost of an unset listener is a single {@code null} check per event. Listeners are
+ * called synchronously on the thread the event occurs on, so they should be quick and must not throw.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ * @see com.developmentsprint.spring.breaker.support.CircuitBreakerEventListenerAdapter
+ */
+public interface CircuitBreakerEventListener {
+
+    /**
+     * Outcome of an execution of a protected method.
+     */
+    enum Outcome {
+
+        /** The method returned normally. */
+        SUCCESS,
+
+        /** The method threw an exception. */
+        FAILURE
+    }
+
+    /**
+     * Called after the protected method was executed within the circuit breaker.
+     * 
+     * @param circuitBreaker
+     *            the circuit breaker
+     * @param outcome
+     *            whether the method returned or threw
+     * @param isolation
+     *            how the method was isolated, e.g. {@code THREAD} or {@code SEMAPHORE}
+     * @param queueWaitNanos
+     *            the time the call waited before the method started executing, in nanoseconds
+     * @param executionNanos
+     *            the time the method executed, in nanoseconds
+     */
+    void onExecution(CircuitBreakerDefinition circuitBreaker, Outcome outcome, String isolation, long queueWaitNanos, long executionNanos);
+
+    /**
+     * Called when a call is rejected because the circuit is open.
+     */
+    void onShortCircuit(CircuitBreakerDefinition circuitBreaker);
+
+    /**
+     * Called when a call is rejected because the circuit breaker reached its concurrency limit.
+     */
+    void onRejection(CircuitBreakerDefinition circuitBreaker);
+
+    /**
+     * Called when a call did not complete within the timeout of the circuit breaker.
+     */
+    void onTimeout(CircuitBreakerDefinition circuitBreaker);
+
+    /**
+     * Called when the circuit opens or closes.
+     * 
+     * @param circuitBreaker
+     *            the circuit breaker
+     * @param open
+     *            {@code true} if the circuit opened, {@code false} if it closed
+     */
+    void onStateTransition(CircuitBreakerDefinition circuitBreaker, boolean open);
+
+}
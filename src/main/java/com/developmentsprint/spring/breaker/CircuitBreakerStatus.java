@@ -0,0 +1,111 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker;
+
+/**
+ * A {@link CircuitBreakerDefinition} enriched with the live state of the circuit breaker, as returned by {@link CircuitManager#getConfiguredCircuitBreakers()}.
+ * 
+ * <p>
+ * Statuses are views rather than snapshots: every accessor reads the current state of the underlying circuit breaker, without taking locks, so a status can
+ * be held on to and polled repeatedly (e.g. by a dashboard).
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+public interface CircuitBreakerStatus extends CircuitBreakerDefinition {
+
+    /**
+     * Return whether the circuit is currently open (or half-open), i.e. rejecting calls other than trial calls.
+     */
+    boolean isOpen();
+
+    /**
+     * Return the percentage of failed calls in the current rolling window of the circuit breaker.
+     */
+    int getErrorPercentage();
+
+    /**
+     * Return the number of calls currently executing within the circuit breaker.
+     */
+    int getConcurrentRequests();
+
+    /**
+     * Return the number of calls executed within the circuit breaker since it was created.
+     * 
+     * @return the number of calls, or {@code -1} if the circuit manager does not count calls
+     */
+    long getExecutionCount();
+
+    /**
+     * Return the number of calls executed within the circuit breaker since it was created that failed.
+     * 
+     * @return the number of failed calls, or {@code -1} if the circuit manager does not count calls
+     */
+    long getFailureCount();
+
+    /**
+     * Return the time spent executing calls within the circuit breaker since it was created.
+     * 
+     * @return the total execution time in microseconds, or {@code -1} if the circuit manager does not count calls
+     */
+    long getTotalExecutionTimeInMicroseconds();
+
+    /**
+     * Return the number of threads of the circuit's thread pool that are currently executing calls.
+     * 
+     * @return the number of active threads, or {@code -1} if the circuit does not run on a thread pool of its own
+     */
+    int getThreadPoolActiveCount();
+
+    /**
+     * Return the number of calls waiting in the queue of the circuit's thread pool.
+     * 
+     * @return the queue size, or {@code -1} if the circuit does not run on a thread pool of its own
+     */
+    int getThreadPoolQueueSize();
+
+    /**
+     * Return the given percentile of the execution time of recent calls.
+     * 
+     * @param percentile
+     *            the percentile, between 0 and 100 (e.g. 99.5)
+     * @return the execution time in milliseconds, or {@code -1} if the circuit manager does not measure execution times
+     * @see #getExecutionLatency()
+     */
+    int getLatencyPercentile(double percentile);
+
+    /**
+     * Return the execution times of recent calls, i.e. the time spent in the protected method itself.
+     * 
+     * @return the latencies, or {@code null} if the circuit manager does not measure execution times
+     */
+    LatencyDistribution getExecutionLatency();
+
+    /**
+     * Return the times recent calls waited between being issued and starting to execute, e.g. in the queue of a thread pool.
+     * 
+     * @return the latencies, or {@code null} if the circuit manager does not measure queue wait times
+     */
+    LatencyDistribution getQueueWaitLatency();
+
+    /**
+     * Return the times taken by the fallbacks of recent failed calls.
+     * 
+     * @return the latencies, or {@code null} if the circuit manager does not measure fallback times
+     */
+    LatencyDistribution getFallbackLatency();
+
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker;
+
+/**
+ * A {@link CircuitBreakerStatus} that can also be operated at runtime, e.g. to force a circuit open during an incident without a redeploy.
+ * 
+ * <p>
+ * Changes apply to the running circuit only: they take effect for subsequent calls and are lost when the application restarts or the circuit is redefined.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+public interface ControllableCircuitBreaker extends CircuitBreakerStatus {
+
+    /**
+     * Reject all calls until the circuit is {@link #reset()}, regardless of its health.
+     */
+    void forceOpen();
+
+    /**
+     * Let all calls through until the circuit is {@link #reset()}, regardless of its health.
+     */
+    void forceClosed();
+
+    /**
+     * Clear a forced state, close the circuit and discard the outcomes of past calls.
+     */
+    void reset();
+
+    /**
+     * Return whether the circuit was forced open, either by its configuration or through {@link #forceOpen()}.
+     */
+    boolean isForcedOpen();
+
+    /**
+     * Return whether the circuit was forced closed, either by its configuration or through {@link #forceClosed()}.
+     */
+    boolean isForcedClosed();
+
+    /**
+     * Change a configuration property of the circuit, using the same keys as its {@link CircuitBreakerDefinition#getProperties() properties} (e.g.
+     * {@code execution.isolation.thread.timeoutInMilliseconds}).
+     * 
+     * @throws CircuitBreakerException
+     *             if the property cannot be changed at runtime or the value is invalid
+     */
+    void setProperty(String key, String value);
+
+}
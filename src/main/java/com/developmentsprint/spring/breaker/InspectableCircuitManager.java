@@ -0,0 +1,38 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker;
+
+import java.util.Map;
+
+/**
+ * {@link CircuitManager} that can report the effective configuration of its circuit breakers, as seen by the underlying circuit breaker implementation.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+public interface InspectableCircuitManager extends CircuitManager {
+
+    /**
+     * Return a snapshot of the effective configuration of the named circuit breaker. Intended for diagnostics; the snapshot is computed on demand and is not
+     * part of the execution path.
+     * 
+     * @param name
+     *            the circuit breaker name
+     * @return the effective configuration keyed by property name, or an empty map if the circuit breaker is not known to this manager
+     */
+    Map<String, String> getCircuitBreakerConfiguration(String name);
+
+}
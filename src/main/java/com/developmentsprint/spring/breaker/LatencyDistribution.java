@@ -0,0 +1,50 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker;
+
+/**
+ * Read-only view of the latencies recently recorded for a circuit breaker, as reported by a {@link CircuitBreakerStatus}.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+public interface LatencyDistribution {
+
+    /**
+     * Return the number of latencies the percentiles are computed over.
+     */
+    long getCount();
+
+    /**
+     * Return the latency at the given percentile.
+     * 
+     * @param percentile
+     *            the percentile, between 0 and 100 (e.g. 99.9)
+     * @return the latency in microseconds, or {@code 0} if nothing was recorded
+     */
+    long getValueAtPercentile(double percentile);
+
+    /**
+     * Compute the latencies at several percentiles at once.
+     * 
+     * @param percentiles
+     *            the percentiles, in ascending order
+     * @param values
+     *            receives the latency in microseconds at each of the percentiles, or {@code 0} if nothing was recorded
+     */
+    void getValuesAtPercentiles(double[] percentiles, long[] values);
+
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker;
+
+/**
+ * {@link CircuitManager} that can set up a circuit ahead of its first invocation, so that the first calls after startup do not pay for creating it.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ * @see com.developmentsprint.spring.breaker.support.CircuitBreakerAspectSupport#setWarmUp
+ */
+public interface PreparableCircuitManager extends CircuitManager {
+
+    /**
+     * Create the circuit the given invoker would run in, along with any resources it needs, without invoking it. Calling this for a circuit that already exists
+     * has no effect.
+     * 
+     * @param invoker
+     *            describes the circuit breaker method; its {@link Invoker#invoke()} must not be called
+     */
+    void prepare(Invoker<?> invoker);
+
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker;
+
+import rx.Observable;
+
+/**
+ * {@link CircuitManager} that can execute invocations reactively, returning an RxJava {@link Observable} of the result instead of blocking the caller.
+ * 
+ * <p>
+ * Failures of the circuit are emitted as {@link CircuitBreakerException}s through {@code onError}.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+public interface ReactiveCircuitManager extends CircuitManager {
+
+    /**
+     * Execute the invocation eagerly. The returned {@link Observable} replays the result to every subscriber.
+     */
+    <T> Observable<T> observe(Invoker<T> invoker);
+
+    /**
+     * Execute the invocation lazily, once the returned {@link Observable} is subscribed to.
+     */
+    <T> Observable<T> toObservable(Invoker<T> invoker);
+
+    /**
+     * Run an invocation that returns an {@link Observable} within the circuit, without blocking while that {@link Observable} emits. The circuit is checked
+     * once the returned {@link Observable} is subscribed to; the invocation's {@link Observable} is then subscribed to, its items are passed on as they are
+     * emitted, and its completion, error or timeout is recorded as the outcome of the call.
+     */
+    <T> Observable<T> wrapObservable(Invoker<Observable<T>> invoker);
+
+}
@@ -17,21 +17,17 @@ package com.developmentsprint.spring.breaker.annotations;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.BridgeMethodResolver;
 import org.springframework.util.ClassUtils;
-import org.springframework.util.ObjectUtils;
 
 import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttribute;
 import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttributeSource;
-import com.developmentsprint.spring.breaker.interceptor.DefaultCircuitBreakerAttribute;
 
 /**
- * Abstract implementation of {@link CircuitBreakerAttributeSource} that caches attributes for methods and implements a fallback policy:
+ * Abstract implementation of {@link CircuitBreakerAttributeSource} that implements a fallback policy:
  * <ol>
  * <li>specific target method
  * <li>target class
@@ -45,19 +41,14 @@ import com.developmentsprint.spring.breaker.interceptor.DefaultCircuitBreakerAtt
  * called through (in case of a JDK proxy) will be checked.
  * 
  * <p>
- * This implementation caches attributes by method after they are first used. If it is ever desirable to allow dynamic changing of circuit breaker attributes
- * (which is very unlikely), caching could be made configurable.
+ * This implementation does not cache attributes: {@link com.developmentsprint.spring.breaker.support.CircuitBreakerAspectSupport} caches the resolved
+ * attribute of each method and target class, so the source is consulted once per method until the attributes are refreshed.
  * 
  * @author Todd Orr
  * @since 1.0
  */
 abstract class AbstractFallbackCircuitBreakerAttributeSource implements CircuitBreakerAttributeSource {
 
-    /**
-     * Canonical value held in cache to indicate no circuit breaker attribute was found for this method, and we don't need to look again.
-     */
-    private final static CircuitBreakerAttribute NULL_CIRCUIT_BREAKER_ATTRIBUTE = new DefaultCircuitBreakerAttribute();
-
     /**
      * Logger available to subclasses.
      * <p>
@@ -65,13 +56,6 @@ abstract class AbstractFallbackCircuitBreakerAttributeSource implements CircuitB
      */
     protected final Logger log = LoggerFactory.getLogger(getClass());
 
-    /**
-     * Cache of {@link CircuitBreakerAttribute}s, keyed by DefaultCacheKey (Method + target Class).
-     * <p>
-     * As this base class is not marked Serializable, the cache will be recreated after serialization - provided that the concrete subclass is Serializable.
-     */
-    final Map<Object, CircuitBreakerAttribute> attributeCache = new ConcurrentHashMap<Object, CircuitBreakerAttribute>(1024);
-
     /**
      * Determine the circuit breaker attribute for this method invocation.
      * <p>
@@ -84,55 +68,16 @@ abstract class AbstractFallbackCircuitBreakerAttributeSource implements CircuitB
      * @return CircuitBreakerAttribute for this method, or {@code null} if the method is not wrapped in a circuit breaker
      */
     public CircuitBreakerAttribute getCircuitBreakerAttribute(Method method, Class<?> targetClass) {
-        // First, see if we have a cached value.
-        Object cacheKey = getCacheKey(method, targetClass);
-        Object cached = this.attributeCache.get(cacheKey);
-        if (cached != null) {
-            // Value will either be canonical value indicating there is no circuit breaker attribute,
-            // or an actual circuit breaker attribute.
-            if (cached == NULL_CIRCUIT_BREAKER_ATTRIBUTE) {
-                return null;
-            }
-            else {
-                return (CircuitBreakerAttribute) cached;
-            }
-        }
-        else {
-            // We need to work it out.
-            CircuitBreakerAttribute cbAttribute = computeCircuitBreakerAttribute(method, targetClass);
-            // Put it in the cache.
-            if (cbAttribute == null) {
-                this.attributeCache.put(cacheKey, NULL_CIRCUIT_BREAKER_ATTRIBUTE);
-            }
-            else {
-                if (log.isDebugEnabled()) {
-                    Class<?> classToLog = (targetClass != null ? targetClass : method.getDeclaringClass());
-                    log.debug("Adding circuit breaker method '{}.{}' with attribute: {}", classToLog.getSimpleName(), method.getName(), cbAttribute);
-                }
-                this.attributeCache.put(cacheKey, cbAttribute);
-            }
-            return cbAttribute;
+        CircuitBreakerAttribute cbAttribute = computeCircuitBreakerAttribute(method, targetClass);
+        if (cbAttribute != null && log.isDebugEnabled()) {
+            Class<?> classToLog = (targetClass != null ? targetClass : method.getDeclaringClass());
+            log.debug("Found circuit breaker method '{}.{}' with attribute: {}", classToLog.getSimpleName(), method.getName(), cbAttribute);
         }
+        return cbAttribute;
     }
 
     /**
-     * Determine a cache key for the given method and target class.
-     * <p>
-     * Must not produce same key for overloaded methods. Must produce same key for different instances of the same method.
-     * 
-     * @param method
-     *            the method (never {@code null})
-     * @param targetClass
-     *            the target class (may be {@code null})
-     * @return the cache key (never {@code null})
-     */
-    protected Object getCacheKey(Method method, Class<?> targetClass) {
-        return new DefaultCacheKey(method, targetClass);
-    }
-
-    /**
-     * Same signature as {@link #getCircuitBreakerAttribute}, but doesn't cache the result. {@link #getCircuitBreakerAttribute} is effectively a caching
-     * decorator for this method.
+     * Same signature as {@link #getCircuitBreakerAttribute}, without the logging.
      * 
      * @see #getCircuitBreakerAttribute(Method, Class)
      */
@@ -203,36 +148,4 @@ abstract class AbstractFallbackCircuitBreakerAttributeSource implements CircuitB
         return false;
     }
 
-    /**
-     * Default cache key for the CircuitBreakerAttribute cache.
-     */
-    private static class DefaultCacheKey {
-
-        private final Method method;
-
-        private final Class<?> targetClass;
-
-        public DefaultCacheKey(Method method, Class<?> targetClass) {
-            this.method = method;
-            this.targetClass = targetClass;
-        }
-
-        @Override
-        public boolean equals(Object other) {
-            if (this == other) {
-                return true;
-            }
-            if (!(other instanceof DefaultCacheKey)) {
-                return false;
-            }
-            DefaultCacheKey otherKey = (DefaultCacheKey) other;
-            return (this.method.equals(otherKey.method) && ObjectUtils.nullSafeEquals(this.targetClass, otherKey.targetClass));
-        }
-
-        @Override
-        public int hashCode() {
-            return this.method.hashCode();
-        }
-    }
-
 }
@@ -0,0 +1,215 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.annotations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor that writes an index of all {@link CircuitBreaker @CircuitBreaker} methods of the compiled classes, along with their
+ * {@link CircuitProperty @CircuitProperty} values, to {@value IndexedCircuitBreakerAttributeSource#INDEX_LOCATION}. The index is read by
+ * {@link IndexedCircuitBreakerAttributeSource}.
+ * 
+ * <p>
+ * Not registered as a service, so that it does not run in the compilation of every project that depends on spring-breaker. Name it explicitly to enable it,
+ * with {@code javac -processor com.developmentsprint.spring.breaker.annotations.CircuitBreakerIndexer} or the {@code annotationProcessors} setting of the
+ * maven-compiler-plugin. Entries of an existing index are kept for classes that are not recompiled, so that incremental compilation does not lose them.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ * @see IndexedCircuitBreakerAttributeSource
+ */
+@SupportedAnnotationTypes("com.developmentsprint.spring.breaker.annotations.CircuitBreaker")
+public class CircuitBreakerIndexer extends AbstractProcessor {
+
+    private final Properties index = new Properties();
+
+    private final Set<String> compiledClassNames = new HashSet<String>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            addCompiledClassNames(type);
+        }
+        for (TypeElement annotation : annotations) {
+            for (ExecutableElement method : ElementFilter.methodsIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                addMethod(method, annotation);
+            }
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void addCompiledClassNames(TypeElement type) {
+        this.compiledClassNames.add(binaryName(type));
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            addCompiledClassNames(nested);
+        }
+    }
+
+    private void addMethod(ExecutableElement method, TypeElement annotation) {
+        AnnotationMirror circuitBreaker = findAnnotation(method, annotation);
+        if (circuitBreaker == null) {
+            return;
+        }
+
+        StringBuilder key = new StringBuilder();
+        key.append(binaryName((TypeElement) method.getEnclosingElement())).append('#').append(method.getSimpleName()).append('(');
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(typeName(parameters.get(i).asType()));
+        }
+        key.append(')');
+        String methodKey = key.toString();
+
+        String name = method.getSimpleName().toString();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : circuitBreaker.getElementValues().entrySet()) {
+            String attribute = entry.getKey().getSimpleName().toString();
+            if ("name".equals(attribute) && ((String) entry.getValue().getValue()).length() > 0) {
+                name = (String) entry.getValue().getValue();
+            } else if ("circuitManager".equals(attribute)) {
+                this.index.setProperty(methodKey + IndexedCircuitBreakerAttributeSource.CIRCUIT_MANAGER_SUFFIX, (String) entry.getValue().getValue());
+            } else if ("properties".equals(attribute)) {
+                for (Object value : (List<?>) entry.getValue().getValue()) {
+                    addProperty(methodKey, (AnnotationMirror) ((AnnotationValue) value).getValue());
+                }
+            }
+        }
+        this.index.setProperty(methodKey, name);
+    }
+
+    private void addProperty(String methodKey, AnnotationMirror circuitProperty) {
+        String key = null;
+        String value = null;
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : circuitProperty.getElementValues().entrySet()) {
+            if ("key".equals(entry.getKey().getSimpleName().toString())) {
+                key = (String) entry.getValue().getValue();
+            } else if ("value".equals(entry.getKey().getSimpleName().toString())) {
+                value = (String) entry.getValue().getValue();
+            }
+        }
+        this.index.setProperty(methodKey + IndexedCircuitBreakerAttributeSource.PROPERTY_INFIX + key, value);
+    }
+
+    private AnnotationMirror findAnnotation(Element element, TypeElement annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().asElement().equals(annotation)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return the name of the erasure of the given type, as returned by {@link Class#getName()} for component types, followed by {@code []} for arrays.
+     */
+    private String typeName(TypeMirror type) {
+        TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+        if (erasure.getKind() == TypeKind.ARRAY) {
+            return typeName(((ArrayType) erasure).getComponentType()) + "[]";
+        }
+        if (erasure.getKind() == TypeKind.DECLARED) {
+            return binaryName((TypeElement) ((DeclaredType) erasure).asElement());
+        }
+        return erasure.toString();
+    }
+
+    private String binaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    private void writeIndex() {
+        Properties merged = readExistingIndex();
+        merged.putAll(this.index);
+        if (merged.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    IndexedCircuitBreakerAttributeSource.INDEX_LOCATION);
+            OutputStream out = file.openOutputStream();
+            try {
+                merged.store(out, "@CircuitBreaker methods, written by " + getClass().getName());
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write circuit breaker index: " + e);
+        }
+    }
+
+    /**
+     * Read the entries of an index written by an earlier compilation, dropping those of the classes compiled now.
+     */
+    private Properties readExistingIndex() {
+        Properties existing = new Properties();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", IndexedCircuitBreakerAttributeSource.INDEX_LOCATION);
+            InputStream in = file.openInputStream();
+            try {
+                existing.load(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            // no previous index
+            return existing;
+        }
+        for (String key : existing.stringPropertyNames()) {
+            int classNameEnd = key.indexOf('#');
+            if (classNameEnd == -1 || this.compiledClassNames.contains(key.substring(0, classNameEnd))) {
+                existing.remove(key);
+            }
+        }
+        return existing;
+    }
+
+}
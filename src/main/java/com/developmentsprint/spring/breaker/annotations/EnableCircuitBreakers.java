@@ -150,4 +150,22 @@ public @interface EnableCircuitBreakers {
      */
     int order() default Ordered.LOWEST_PRECEDENCE;
 
+    /**
+     * Indicate whether the circuit breaker methods of all beans are warmed up once the application context is refreshed, so that the first invocations do
+     * not pay for resolving their attributes and creating their circuits. The default is {@code false}.
+     * 
+     * @see com.developmentsprint.spring.breaker.support.CircuitBreakerAspectSupport#setWarmUp
+     * @see com.developmentsprint.spring.breaker.PreparableCircuitManager
+     */
+    boolean warmUp() default false;
+
+    /**
+     * Indicate whether circuit breaker methods are read from the index written at compile time by the {@link CircuitBreakerIndexer} instead of being found
+     * by reflection, letting the advisor skip classes without circuit breaker methods entirely. Classes compiled without the indexer then have no circuit
+     * breakers. The default is {@code false}. <strong>Applicable only if {@link #mode()} is set to {@link AdviceMode#PROXY}</strong>.
+     * 
+     * @see IndexedCircuitBreakerAttributeSource
+     */
+    boolean useIndex() default false;
+
 }
@@ -0,0 +1,212 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.annotations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.aop.ClassFilter;
+import org.springframework.util.ClassUtils;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerException;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttribute;
+import com.developmentsprint.spring.breaker.interceptor.DefaultCircuitBreakerAttribute;
+
+/**
+ * {@link com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttributeSource} that reads {@link CircuitBreaker @CircuitBreaker} methods from the
+ * index written at compile time by {@link CircuitBreakerIndexer} instead of looking for annotations by reflection. All indexes found on the class path are
+ * read on construction.
+ * 
+ * <p>
+ * Also acts as a {@link ClassFilter} for the circuit breaker pointcut, so that classes without any circuit breaker method in their hierarchy are skipped
+ * entirely. Classes that were compiled without the indexer are treated as having no circuit breaker methods.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ * @see CircuitBreakerIndexer
+ */
+public class IndexedCircuitBreakerAttributeSource extends AbstractFallbackCircuitBreakerAttributeSource implements ClassFilter, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Location of the index on the class path.
+     */
+    public static final String INDEX_LOCATION = "META-INF/spring-breaker.index";
+
+    static final String CIRCUIT_MANAGER_SUFFIX = ".circuitManager";
+
+    static final String PROPERTY_INFIX = ".property.";
+
+    private final boolean publicMethodsOnly;
+
+    /** Keys are class names; values map method signatures to attributes */
+    private final Map<String, Map<String, CircuitBreakerAttribute>> indexedClasses = new HashMap<String, Map<String, CircuitBreakerAttribute>>();
+
+    private final ConcurrentMap<Class<?>, Boolean> candidateClasses = new ConcurrentHashMap<Class<?>, Boolean>(256);
+
+    /**
+     * Create an IndexedCircuitBreakerAttributeSource reading the indexes visible to the default class loader, supporting public methods only.
+     */
+    public IndexedCircuitBreakerAttributeSource() {
+        this(true, ClassUtils.getDefaultClassLoader());
+    }
+
+    /**
+     * Create an IndexedCircuitBreakerAttributeSource reading the indexes visible to the given class loader.
+     * 
+     * @param publicMethodsOnly
+     *            whether to support public methods that carry the {@code CircuitBreaker} annotation only (typically for use with proxy-based AOP), or
+     *            protected/private methods as well (typically used with AspectJ class weaving)
+     * @param classLoader
+     *            the class loader to find indexes with
+     */
+    public IndexedCircuitBreakerAttributeSource(boolean publicMethodsOnly, ClassLoader classLoader) {
+        this.publicMethodsOnly = publicMethodsOnly;
+        try {
+            Enumeration<URL> indexes = classLoader.getResources(INDEX_LOCATION);
+            while (indexes.hasMoreElements()) {
+                readIndex(indexes.nextElement());
+            }
+        } catch (IOException e) {
+            throw new CircuitBreakerException("Unable to read circuit breaker index " + INDEX_LOCATION, e);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Read circuit breaker index with {} classes", this.indexedClasses.size());
+        }
+    }
+
+    private void readIndex(URL url) throws IOException {
+        Properties index = new Properties();
+        InputStream in = url.openStream();
+        try {
+            index.load(in);
+        } finally {
+            in.close();
+        }
+
+        // method entries first, so that their attributes exist when their circuit manager and properties are read
+        Set<String> detailKeys = new HashSet<String>();
+        for (String key : index.stringPropertyNames()) {
+            int signatureEnd = key.indexOf(')');
+            if (signatureEnd == key.length() - 1) {
+                DefaultCircuitBreakerAttribute attribute = new DefaultCircuitBreakerAttribute();
+                attribute.setName(index.getProperty(key));
+                methodsOf(key.substring(0, key.indexOf('#'))).put(key.substring(key.indexOf('#') + 1), attribute);
+            } else {
+                detailKeys.add(key);
+            }
+        }
+
+        for (String key : detailKeys) {
+            int signatureEnd = key.indexOf(')') + 1;
+            DefaultCircuitBreakerAttribute attribute = (DefaultCircuitBreakerAttribute) methodsOf(key.substring(0, key.indexOf('#'))).get(
+                    key.substring(key.indexOf('#') + 1, signatureEnd));
+            if (attribute == null) {
+                continue;
+            }
+            String detail = key.substring(signatureEnd);
+            if (detail.equals(CIRCUIT_MANAGER_SUFFIX)) {
+                attribute.setCircuitManager(index.getProperty(key));
+            } else if (detail.startsWith(PROPERTY_INFIX)) {
+                attribute.getProperties().put(detail.substring(PROPERTY_INFIX.length()), index.getProperty(key));
+            }
+        }
+    }
+
+    private Map<String, CircuitBreakerAttribute> methodsOf(String className) {
+        Map<String, CircuitBreakerAttribute> methods = this.indexedClasses.get(className);
+        if (methods == null) {
+            methods = new HashMap<String, CircuitBreakerAttribute>();
+            this.indexedClasses.put(className, methods);
+        }
+        return methods;
+    }
+
+    /**
+     * Return whether the given class, one of its superclasses or one of its interfaces declares a circuit breaker method.
+     */
+    @Override
+    public boolean matches(Class<?> clazz) {
+        Boolean candidate = this.candidateClasses.get(clazz);
+        if (candidate == null) {
+            candidate = Boolean.FALSE;
+            for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+                if (this.indexedClasses.containsKey(current.getName())) {
+                    candidate = Boolean.TRUE;
+                    break;
+                }
+            }
+            if (!candidate) {
+                for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(clazz)) {
+                    if (this.indexedClasses.containsKey(ifc.getName())) {
+                        candidate = Boolean.TRUE;
+                        break;
+                    }
+                }
+            }
+            this.candidateClasses.put(clazz, candidate);
+        }
+        return candidate;
+    }
+
+    @Override
+    protected CircuitBreakerAttribute findCircuitBreakerAttribute(Method method) {
+        Map<String, CircuitBreakerAttribute> methods = this.indexedClasses.get(method.getDeclaringClass().getName());
+        if (methods == null) {
+            return null;
+        }
+        StringBuilder signature = new StringBuilder(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                signature.append(',');
+            }
+            signature.append(typeName(parameterTypes[i]));
+        }
+        CircuitBreakerAttribute attribute = methods.get(signature.append(')').toString());
+        return (attribute != null ? new DefaultCircuitBreakerAttribute(attribute) : null);
+    }
+
+    /**
+     * {@link CircuitBreaker @CircuitBreaker} applies to methods only.
+     */
+    @Override
+    protected CircuitBreakerAttribute findCircuitBreakerAttribute(Class<?> clazz) {
+        return null;
+    }
+
+    @Override
+    protected boolean allowPublicMethodsOnly() {
+        return this.publicMethodsOnly;
+    }
+
+    private static String typeName(Class<?> type) {
+        return (type.isArray() ? typeName(type.getComponentType()) + "[]" : type.getName());
+    }
+
+}
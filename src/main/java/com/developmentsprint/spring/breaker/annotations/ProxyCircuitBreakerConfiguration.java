@@ -50,6 +50,9 @@ public class ProxyCircuitBreakerConfiguration extends AbstractCircuitBreakerConf
     @Bean
     @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
     public CircuitBreakerAttributeSource circuitBreakerOperationSource() {
+        if (this.enableCircuitBreakers.getBoolean("useIndex")) {
+            return new IndexedCircuitBreakerAttributeSource();
+        }
         return new AnnotationCircuitBreakerAttributeSource();
     }
 
@@ -58,6 +61,7 @@ public class ProxyCircuitBreakerConfiguration extends AbstractCircuitBreakerConf
     public CircuitBreakerInterceptor circuitBreakerInterceptor() {
         CircuitBreakerInterceptor interceptor = new CircuitBreakerInterceptor();
         interceptor.setCircuitBreakerAttributeSource(circuitBreakerOperationSource());
+        interceptor.setWarmUp(this.enableCircuitBreakers.getBoolean("warmUp"));
         if (this.circuitManager != null) {
             interceptor.setCircuitManager(this.circuitManager);
         }
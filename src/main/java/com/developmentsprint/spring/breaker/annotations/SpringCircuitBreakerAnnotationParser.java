@@ -50,6 +50,9 @@ public class SpringCircuitBreakerAnnotationParser implements CircuitBreakerAnnot
         } else {
             attr.setName(ann.name());
         }
+        if (StringUtils.hasText(ann.circuitManager())) {
+            attr.setCircuitManager(ann.circuitManager());
+        }
         if (ann.properties().length > 0) {
             Map<String, String> properties = new HashMap<String, String>();
             for (CircuitProperty prop : ann.properties()) {
@@ -41,6 +41,7 @@ public class AspectJCircuitBreakerConfiguration extends AbstractCircuitBreakerCo
     @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
     public AnnotationCircuitBreakerAspect circuitBreakerAspect() {
         AnnotationCircuitBreakerAspect circuitBreakerAspect = AnnotationCircuitBreakerAspect.aspectOf();
+        circuitBreakerAspect.setWarmUp(this.enableCircuitBreakers.getBoolean("warmUp"));
         if (this.circuitManager != null) {
             circuitBreakerAspect.setCircuitManager(this.circuitManager);
         }
@@ -26,6 +26,7 @@ import org.springframework.beans.factory.xml.ParserContext;
 import org.w3c.dom.Element;
 
 import com.developmentsprint.spring.breaker.annotations.AnnotationCircuitBreakerAttributeSource;
+import com.developmentsprint.spring.breaker.annotations.IndexedCircuitBreakerAttributeSource;
 import com.developmentsprint.spring.breaker.annotations.ProxyCircuitBreakerConfiguration;
 import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttributeSourceAdvisor;
 import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerInterceptor;
@@ -76,8 +77,10 @@ final class AnnotationDrivenBreakerBeanDefinitionParser implements BeanDefinitio
             if (!parserContext.getRegistry().containsBeanDefinition(ProxyCircuitBreakerConfiguration.CIRCUIT_BREAKER_ADVISOR_BEAN_NAME)) {
                 Object eleSource = parserContext.extractSource(element);
 
-                // Create the AnnotationCircuitBreakerAttributeSource definition.
-                RootBeanDefinition sourceDef = new RootBeanDefinition(AnnotationCircuitBreakerAttributeSource.class);
+                // Create the AnnotationCircuitBreakerAttributeSource or IndexedCircuitBreakerAttributeSource definition.
+                Class<?> sourceClass = ("true".equals(element.getAttribute("use-index")) ? IndexedCircuitBreakerAttributeSource.class
+                        : AnnotationCircuitBreakerAttributeSource.class);
+                RootBeanDefinition sourceDef = new RootBeanDefinition(sourceClass);
                 sourceDef.setSource(eleSource);
                 sourceDef.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
                 String sourceName = parserContext.getReaderContext().registerWithGeneratedName(sourceDef);
@@ -88,6 +91,9 @@ final class AnnotationDrivenBreakerBeanDefinitionParser implements BeanDefinitio
                 interceptorDef.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
                 parseCircuitManagerProperty(element, interceptorDef);
                 interceptorDef.getPropertyValues().add("circuitBreakerAttributeSource", new RuntimeBeanReference(sourceName));
+                if (element.hasAttribute("warm-up")) {
+                    interceptorDef.getPropertyValues().add("warmUp", element.getAttribute("warm-up"));
+                }
                 String interceptorName = parserContext.getReaderContext().registerWithGeneratedName(interceptorDef);
 
                 // Create the CircuitBreakerAttributeSourceAdvisor definition.
@@ -1,9 +1,9 @@
 package com.developmentsprint.spring.breaker.hystrix;
 
-import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.HystrixExecutable;
 
 public interface CommandRunner<T, J> {
 
-    J run(HystrixCommand<T> command);
+    J run(HystrixExecutable<T> command);
 
 }
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.hystrix;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.springframework.util.ReflectionUtils;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerException;
+import com.developmentsprint.spring.breaker.CircuitManager.Invoker;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttribute;
+
+/**
+ * {@link Invoker} that calls the batch method of a collapsed circuit with the arguments of all collapsed requests.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ * @see HystrixInvokerCollapser
+ */
+class HystrixBatchInvoker implements Invoker<Object> {
+
+    private final Invoker<?> template;
+
+    private final Object target;
+
+    private final Method batchMethod;
+
+    private final List<Object> arguments;
+
+    /**
+     * @param template
+     *            the invoker of one of the collapsed requests, supplying the circuit
+     * @param target
+     *            the target all collapsed requests were made on
+     * @param batchMethod
+     *            the batch method to call
+     * @param arguments
+     *            the arguments of the collapsed requests, in request order
+     */
+    HystrixBatchInvoker(Invoker<?> template, Object target, Method batchMethod, List<Object> arguments) {
+        this.template = template;
+        this.target = target;
+        this.batchMethod = batchMethod;
+        this.arguments = arguments;
+    }
+
+    @Override
+    public CircuitBreakerAttribute getCircuitBreakerAttribute() {
+        return template.getCircuitBreakerAttribute();
+    }
+
+    @Override
+    public Object invoke() {
+        try {
+            return batchMethod.invoke(target, arguments);
+        } catch (InvocationTargetException e) {
+            throw new CircuitBreakerException(e.getTargetException());
+        } catch (IllegalAccessException e) {
+            throw new CircuitBreakerException(e);
+        }
+    }
+
+    @Override
+    public Object getTarget() {
+        return target;
+    }
+
+    @Override
+    public Class<?> getTargetClass() {
+        return template.getTargetClass();
+    }
+
+    @Override
+    public Method getMethod() {
+        return batchMethod;
+    }
+
+    @Override
+    public Object[] getArguments() {
+        return new Object[] { arguments };
+    }
+
+    /**
+     * Find the batch method with the given name on the target class. The batch method has to take a single {@link List} (or a supertype of it) of request
+     * arguments.
+     */
+    static Method findBatchMethod(Class<?> targetClass, String name) {
+        // declared methods of the target class come before those of its superclasses
+        for (Method method : ReflectionUtils.getAllDeclaredMethods(targetClass)) {
+            if (method.getName().equals(name) && method.getParameterTypes().length == 1 && method.getParameterTypes()[0].isAssignableFrom(List.class)) {
+                ReflectionUtils.makeAccessible(method);
+                return method;
+            }
+        }
+        throw new CircuitBreakerException("No batch method '" + name + "(List)' found on " + targetClass.getName());
+    }
+
+}
@@ -0,0 +1,249 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.hystrix;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.configuration.AbstractConfiguration;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerEventListener;
+import com.developmentsprint.spring.breaker.ControllableCircuitBreaker;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttribute;
+import com.developmentsprint.spring.breaker.support.AbstractCircuitBreakerStatus;
+import com.netflix.hystrix.HystrixCircuitBreaker;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.HystrixCommandProperties.ExecutionIsolationStrategy;
+import com.netflix.hystrix.HystrixThreadPoolKey;
+import com.netflix.hystrix.HystrixThreadPoolMetrics;
+import com.netflix.hystrix.strategy.properties.HystrixPropertiesFactory;
+
+/**
+ * {@link com.developmentsprint.spring.breaker.CircuitBreakerStatus} of a circuit executed by the {@link HystrixCircuitManager}, reading the Hystrix circuit
+ * breaker and command metrics of the circuit's command key.
+ * 
+ * <p>
+ * Hystrix registers both when the first command of a circuit is created; until then the circuit reports as closed and idle. Latencies are recorded by the
+ * {@link HystrixInvokerCommand}s of the circuit.
+ * 
+ * <p>
+ * The circuit is controlled through its Hystrix properties, which are overridden in the Archaius configuration of the manager just like the properties of
+ * its {@link CircuitBreakerAttribute}. Hystrix only discards the outcomes of past calls when it closes an open circuit, so {@link #reset()} leaves those of
+ * a closed circuit in place.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+final class HystrixCircuitBreakerStatus extends AbstractCircuitBreakerStatus implements ControllableCircuitBreaker {
+
+    private static final String FORCE_OPEN = "circuitBreaker.forceOpen";
+
+    private static final String FORCE_CLOSED = "circuitBreaker.forceClosed";
+
+    private final String commandName;
+
+    private final String threadPoolName;
+
+    private final HystrixCommandKey commandKey;
+
+    private final HystrixThreadPoolKey threadPoolKey;
+
+    private final HystrixCommandProperties.Setter commandPropertiesDefaults;
+
+    private final Executor isolationExecutor;
+
+    private final AbstractConfiguration configuration;
+
+    private volatile HystrixCommandMetrics metrics;
+
+    private volatile HystrixCircuitBreaker circuitBreaker;
+
+    private volatile HystrixThreadPoolMetrics threadPoolMetrics;
+
+    /**
+     * Whether the circuit was open when last checked for a {@link #notifyStateTransition state transition}.
+     */
+    private final AtomicBoolean open = new AtomicBoolean();
+
+    /**
+     * Number of invocations running on the isolation executor, including timed-out ones that are still running.
+     */
+    private final AtomicInteger isolatedTasks = new AtomicInteger();
+
+    HystrixCircuitBreakerStatus(CircuitBreakerAttribute attribute, String commandName, String threadPoolName,
+            HystrixCommandProperties.Setter commandPropertiesDefaults, Executor isolationExecutor, AbstractConfiguration configuration) {
+        super(attribute);
+        this.commandName = commandName;
+        this.threadPoolName = threadPoolName;
+        this.commandKey = HystrixCommandKey.Factory.asKey(commandName);
+        this.threadPoolKey = HystrixThreadPoolKey.Factory.asKey(threadPoolName);
+        this.commandPropertiesDefaults = commandPropertiesDefaults;
+        this.isolationExecutor = isolationExecutor;
+        this.configuration = configuration;
+    }
+
+    @Override
+    public boolean isOpen() {
+        HystrixCircuitBreaker circuitBreaker = getCircuitBreaker();
+        return (circuitBreaker != null && circuitBreaker.isOpen());
+    }
+
+    @Override
+    public int getErrorPercentage() {
+        HystrixCommandMetrics metrics = getMetrics();
+        return (metrics != null ? metrics.getHealthCounts().getErrorPercentage() : 0);
+    }
+
+    @Override
+    public int getConcurrentRequests() {
+        HystrixCommandMetrics metrics = getMetrics();
+        return (metrics != null ? metrics.getCurrentConcurrentExecutionCount() : 0);
+    }
+
+    /**
+     * Return the occupancy of the isolation executor if it is a {@link ThreadPoolExecutor}, or else of the Hystrix thread pool of a thread-isolated circuit.
+     */
+    @Override
+    public int getThreadPoolActiveCount() {
+        if (isolationExecutor != null) {
+            return (isolationExecutor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) isolationExecutor).getActiveCount() : -1);
+        }
+        HystrixThreadPoolMetrics threadPoolMetrics = getThreadPoolMetrics();
+        return (threadPoolMetrics != null ? threadPoolMetrics.getCurrentActiveCount().intValue() : -1);
+    }
+
+    @Override
+    public int getThreadPoolQueueSize() {
+        if (isolationExecutor != null) {
+            return (isolationExecutor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) isolationExecutor).getQueue().size() : -1);
+        }
+        HystrixThreadPoolMetrics threadPoolMetrics = getThreadPoolMetrics();
+        return (threadPoolMetrics != null ? threadPoolMetrics.getCurrentQueueSize().intValue() : -1);
+    }
+
+    @Override
+    public void forceOpen() {
+        setProperty(FORCE_CLOSED, "false");
+        setProperty(FORCE_OPEN, "true");
+    }
+
+    @Override
+    public void forceClosed() {
+        setProperty(FORCE_OPEN, "false");
+        setProperty(FORCE_CLOSED, "true");
+    }
+
+    @Override
+    public void reset() {
+        setProperty(FORCE_OPEN, "false");
+        setProperty(FORCE_CLOSED, "false");
+        HystrixCircuitBreaker circuitBreaker = getCircuitBreaker();
+        if (circuitBreaker != null) {
+            circuitBreaker.markSuccess();
+        }
+    }
+
+    @Override
+    public boolean isForcedOpen() {
+        return getCommandProperties().circuitBreakerForceOpen().get();
+    }
+
+    @Override
+    public boolean isForcedClosed() {
+        return getCommandProperties().circuitBreakerForceClosed().get();
+    }
+
+    @Override
+    public void setProperty(String key, String value) {
+        HystrixCircuitManager.setCircuitProperty(configuration, commandName, threadPoolName, key, value);
+    }
+
+    /**
+     * Try to reserve a slot for an invocation on the isolation executor. Hystrix releases its semaphore permit as soon as a timed-out command returns,
+     * while the invocation may keep running, so running invocations are counted here against the same limit.
+     */
+    boolean tryAcquireIsolatedTask(int maxConcurrentRequests) {
+        while (true) {
+            int current = isolatedTasks.get();
+            if (current >= maxConcurrentRequests) {
+                return false;
+            }
+            if (isolatedTasks.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void releaseIsolatedTask() {
+        isolatedTasks.decrementAndGet();
+    }
+
+    /**
+     * Notify the given listener if the circuit opened or closed since the last check. Hystrix offers no callback for state transitions, so they are
+     * detected after executions.
+     */
+    void notifyStateTransition(CircuitBreakerEventListener listener) {
+        boolean open = isOpen();
+        if (this.open.get() != open && this.open.compareAndSet(!open, open)) {
+            listener.onStateTransition(this, open);
+        }
+    }
+
+    private HystrixCircuitBreaker getCircuitBreaker() {
+        HystrixCircuitBreaker circuitBreaker = this.circuitBreaker;
+        if (circuitBreaker == null) {
+            circuitBreaker = HystrixCircuitBreaker.Factory.getInstance(commandKey);
+            this.circuitBreaker = circuitBreaker;
+        }
+        return circuitBreaker;
+    }
+
+    /**
+     * Return the thread pool metrics, which Hystrix only registers for circuits isolated on its thread pools.
+     */
+    private HystrixThreadPoolMetrics getThreadPoolMetrics() {
+        if (getCommandProperties().executionIsolationStrategy().get() != ExecutionIsolationStrategy.THREAD) {
+            return null;
+        }
+        HystrixThreadPoolMetrics threadPoolMetrics = this.threadPoolMetrics;
+        if (threadPoolMetrics == null) {
+            threadPoolMetrics = HystrixThreadPoolMetrics.getInstance(threadPoolKey);
+            this.threadPoolMetrics = threadPoolMetrics;
+        }
+        return threadPoolMetrics;
+    }
+
+    /**
+     * Return the Hystrix command properties of the circuit, which are cached per command key, with the same defaults as the commands of the circuit.
+     */
+    private HystrixCommandProperties getCommandProperties() {
+        return HystrixPropertiesFactory.getCommandProperties(commandKey, commandPropertiesDefaults);
+    }
+
+    private HystrixCommandMetrics getMetrics() {
+        HystrixCommandMetrics metrics = this.metrics;
+        if (metrics == null) {
+            metrics = HystrixCommandMetrics.getInstance(commandKey);
+            this.metrics = metrics;
+        }
+        return metrics;
+    }
+
+}
@@ -15,42 +15,73 @@
  */
 package com.developmentsprint.spring.breaker.hystrix;
 
-import java.util.Iterator;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.configuration.AbstractConfiguration;
+import org.apache.commons.configuration.event.ConfigurationEvent;
+import org.apache.commons.configuration.event.ConfigurationListener;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 
+import rx.Observable;
+import rx.functions.Func1;
+
+import com.developmentsprint.spring.breaker.AsynchronousCircuitManager;
 import com.developmentsprint.spring.breaker.CircuitBreakerDefinition;
+import com.developmentsprint.spring.breaker.CircuitBreakerEventListener;
 import com.developmentsprint.spring.breaker.CircuitBreakerException;
-import com.developmentsprint.spring.breaker.CircuitManager;
 import com.developmentsprint.spring.breaker.CircuitOverloadException;
 import com.developmentsprint.spring.breaker.CircuitTimeoutException;
-import com.developmentsprint.spring.breaker.hystrix.fallback.FailFastFallback;
-import com.developmentsprint.spring.breaker.hystrix.fallback.FailSilentFallback;
+import com.developmentsprint.spring.breaker.InspectableCircuitManager;
+import com.developmentsprint.spring.breaker.PreparableCircuitManager;
+import com.developmentsprint.spring.breaker.ReactiveCircuitManager;
 import com.developmentsprint.spring.breaker.hystrix.fallback.HystrixFallback;
+import com.developmentsprint.spring.breaker.hystrix.fallback.HystrixFallbackRegistry;
 import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttribute;
+import com.developmentsprint.spring.breaker.monitor.CircuitBreakerMBeanRegistrar;
+import com.developmentsprint.spring.breaker.support.ArgumentsKeyGenerator;
 import com.netflix.config.ConfigurationManager;
 import com.netflix.config.DeploymentContext;
+import com.netflix.hystrix.HystrixCollapser;
+import com.netflix.hystrix.HystrixCollapser.Scope;
+import com.netflix.hystrix.HystrixCollapserKey;
+import com.netflix.hystrix.HystrixCollapserProperties;
 import com.netflix.hystrix.HystrixCommand;
 import com.netflix.hystrix.HystrixCommandGroupKey;
 import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.HystrixCommandProperties.ExecutionIsolationStrategy;
+import com.netflix.hystrix.HystrixExecutable;
 import com.netflix.hystrix.HystrixThreadPoolKey;
+import com.netflix.hystrix.HystrixThreadPoolProperties;
 import com.netflix.hystrix.exception.HystrixRuntimeException;
+import com.netflix.hystrix.strategy.properties.HystrixPropertiesFactory;
+import com.netflix.hystrix.strategy.properties.HystrixProperty;
 
-public class HystrixCircuitManager implements CircuitManager, InitializingBean, ApplicationContextAware {
+public class HystrixCircuitManager implements ReactiveCircuitManager, AsynchronousCircuitManager, PreparableCircuitManager, InspectableCircuitManager,
+        InitializingBean, DisposableBean, ApplicationContextAware {
 
     private static final Logger log = LoggerFactory.getLogger(HystrixCircuitManager.class);
 
@@ -60,10 +91,35 @@ public class HystrixCircuitManager implements CircuitManager, InitializingBean,
 
     private static final String INSTANCE_COLLAPSER_PROP_KEY_FORMAT = "hystrix.collapser.%s.%s";
 
-    private static final Map<String, Boolean> CONFIGURED_BREAKERS = new ConcurrentHashMap<String, Boolean>();
+    private static final String ISOLATION_STRATEGY_PROPERTY = "execution.isolation.strategy";
+
+    private static final String BATCH_METHOD_PROPERTY = "batchMethod";
+
+    private static final String REQUEST_CACHE_PROPERTY = "requestCache";
+
+    private static final String INTERRUPT_CALLER_ON_TIMEOUT_PROPERTY = "interruptCallerOnTimeout";
+
+    /**
+     * The plans of each circuit, by circuit name.
+     */
+    private final ConcurrentMap<String, CircuitPlans> executionPlans = new ConcurrentHashMap<String, CircuitPlans>();
 
     private AbstractConfiguration configuration;
 
+    /**
+     * Logs changes of Hystrix properties; registered on the global Archaius configuration and removed again on {@link #destroy()}.
+     */
+    private final ConfigurationListener configurationListener = new ConfigurationListener() {
+        @Override
+        public void configurationChanged(ConfigurationEvent event) {
+            if (!event.isBeforeUpdate() && event.getPropertyName() != null && event.getPropertyName().startsWith("hystrix.")) {
+                log.debug("Hystrix property '{}' changed to '{}'", event.getPropertyName(), event.getPropertyValue());
+            }
+        }
+    };
+
+    private AbstractConfiguration listenedConfiguration;
+
     private Properties properties;
 
     private DeploymentContext deploymentContext;
@@ -72,14 +128,42 @@ public class HystrixCircuitManager implements CircuitManager, InitializingBean,
 
     private ApplicationContext applicationContext;
 
+    private HystrixFallbackRegistry fallbackRegistry;
+
+    private ExecutionIsolationStrategy defaultIsolationStrategy;
+
+    private Executor isolationExecutor;
+
+    private KeyGenerator cacheKeyGenerator = new ArgumentsKeyGenerator();
+
+    private CircuitBreakerEventListener eventListener;
+
+    private CircuitBreakerMBeanRegistrar mbeanRegistrar;
+
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         this.applicationContext = applicationContext;
     }
 
+    /**
+     * Return the {@link com.developmentsprint.spring.breaker.CircuitBreakerStatus live status} of every circuit this manager has executed or prepared so far.
+     */
     @Override
     public List<CircuitBreakerDefinition> getConfiguredCircuitBreakers() {
-        return null;
+        List<CircuitBreakerDefinition> statuses = new ArrayList<CircuitBreakerDefinition>();
+        for (CircuitPlans plans : executionPlans.values()) {
+            statuses.add(plans.plans[0].getStatus());
+        }
+        return statuses;
+    }
+
+    @Override
+    public Map<String, String> getCircuitBreakerConfiguration(String name) {
+        CircuitPlans plans = executionPlans.get(name);
+        if (plans == null) {
+            return Collections.emptyMap();
+        }
+        return snapshotConfiguration(plans.plans[0]);
     }
 
     @Override
@@ -94,6 +178,22 @@ public class HystrixCircuitManager implements CircuitManager, InitializingBean,
             ConfigurationManager.loadCascadedPropertiesFromResources(propertiesFileName);
         }
         configuration = ConfigurationManager.getConfigInstance();
+        configuration.addConfigurationListener(configurationListener);
+        listenedConfiguration = configuration;
+        if (fallbackRegistry == null) {
+            fallbackRegistry = new HystrixFallbackRegistry(applicationContext);
+        }
+    }
+
+    /**
+     * Remove the listener this manager registered on the global Archaius configuration, which would otherwise keep the manager reachable.
+     */
+    @Override
+    public void destroy() {
+        if (listenedConfiguration != null) {
+            listenedConfiguration.removeConfigurationListener(configurationListener);
+            listenedConfiguration = null;
+        }
     }
 
     public AbstractConfiguration getConfiguration() {
@@ -104,6 +204,58 @@ public class HystrixCircuitManager implements CircuitManager, InitializingBean,
         this.configuration = configuration;
     }
 
+    public HystrixFallbackRegistry getFallbackRegistry() {
+        return fallbackRegistry;
+    }
+
+    /**
+     * Set the registry that supplies {@link HystrixFallback} instances. Defaults to a registry backed by the containing application context.
+     */
+    public void setFallbackRegistry(HystrixFallbackRegistry fallbackRegistry) {
+        this.fallbackRegistry = fallbackRegistry;
+    }
+
+    public ExecutionIsolationStrategy getDefaultIsolationStrategy() {
+        return defaultIsolationStrategy;
+    }
+
+    /**
+     * Set the isolation strategy used by circuits that do not configure {@code execution.isolation.strategy} themselves. {@code SEMAPHORE} runs the
+     * protected method on the caller thread, bounded by {@code execution.isolation.semaphore.maxConcurrentRequests}; by default Hystrix uses {@code THREAD}.
+     */
+    public void setDefaultIsolationStrategy(ExecutionIsolationStrategy defaultIsolationStrategy) {
+        this.defaultIsolationStrategy = defaultIsolationStrategy;
+    }
+
+    public Executor getIsolationExecutor() {
+        return isolationExecutor;
+    }
+
+    /**
+     * Set an executor that runs protected methods in place of the per-circuit Hystrix thread pools. Each call is handed to the executor and the number of
+     * concurrent calls per circuit is bounded by {@code execution.isolation.semaphore.maxConcurrentRequests} rather than by the size of a thread pool, so an
+     * executor that starts a thread per task (e.g. {@code Executors.newVirtualThreadPerTaskExecutor()} on Java 21) lets blocking circuits scale without
+     * sizing platform thread pools.
+     * <p>
+     * Applies to circuits that do not configure {@code execution.isolation.strategy} themselves, and only if no {@link #setDefaultIsolationStrategy default
+     * isolation strategy} is set.
+     */
+    public void setIsolationExecutor(Executor isolationExecutor) {
+        this.isolationExecutor = isolationExecutor;
+    }
+
+    public KeyGenerator getCacheKeyGenerator() {
+        return cacheKeyGenerator;
+    }
+
+    /**
+     * Set the generator of request cache keys for circuits that enable the {@code requestCache} property. The generated key is converted to a
+     * {@link String}. Defaults to an {@link ArgumentsKeyGenerator}.
+     */
+    public void setCacheKeyGenerator(KeyGenerator cacheKeyGenerator) {
+        this.cacheKeyGenerator = cacheKeyGenerator;
+    }
+
     public Properties getProperties() {
         return properties;
     }
@@ -120,6 +272,30 @@ public class HystrixCircuitManager implements CircuitManager, InitializingBean,
         this.deploymentContext = deploymentContext;
     }
 
+    public CircuitBreakerEventListener getEventListener() {
+        return eventListener;
+    }
+
+    /**
+     * Set a listener to be notified of executions, short-circuits, rejections, timeouts and state transitions of the circuits. There is no listener by
+     * default. Circuits pick up the listener when they are first executed or prepared, so it has to be set before then.
+     */
+    public void setEventListener(CircuitBreakerEventListener eventListener) {
+        this.eventListener = eventListener;
+    }
+
+    public CircuitBreakerMBeanRegistrar getMbeanRegistrar() {
+        return mbeanRegistrar;
+    }
+
+    /**
+     * Set the registrar of the MBeans through which the circuits are monitored and controlled. Each circuit is registered when it is first executed or
+     * prepared. There are no MBeans by default.
+     */
+    public void setMbeanRegistrar(CircuitBreakerMBeanRegistrar mbeanRegistrar) {
+        this.mbeanRegistrar = mbeanRegistrar;
+    }
+
     public String getPropertiesFileName() {
         return propertiesFileName;
     }
@@ -132,7 +308,7 @@ public class HystrixCircuitManager implements CircuitManager, InitializingBean,
     public <T> T execute(Invoker<T> invoker) {
         return executeInternal(invoker, new CommandRunner<T, T>() {
             @Override
-            public T run(HystrixCommand<T> command) {
+            public T run(HystrixExecutable<T> command) {
                 return command.execute();
             }
         });
@@ -142,103 +318,293 @@ public class HystrixCircuitManager implements CircuitManager, InitializingBean,
     public <T> Future<T> queue(Invoker<T> invoker) {
         CommandRunner<T, Future<T>> runner = new CommandRunner<T, Future<T>>() {
             @Override
-            public Future<T> run(HystrixCommand<T> command) {
-                return command.queue();
+            public Future<T> run(HystrixExecutable<T> command) {
+                if (command instanceof HystrixInvokerCommand) {
+                    return new HystrixResultFuture<T>(((HystrixInvokerCommand<T>) command).queueCommand());
+                }
+                return new HystrixResultFuture<T>(command.queue());
             }
         };
         return executeInternal(invoker, runner);
     }
 
-    @SuppressWarnings("unchecked")
-    private <T, J> J executeInternal(final Invoker<T> invoker, CommandRunner<T, J> runner) {
+    /**
+     * Queued commands run on the circuit's isolation executor if it has one, and on the Hystrix thread pool if the circuit is isolated by thread.
+     * Semaphore-isolated commands without an isolation executor run on the caller thread.
+     */
+    @Override
+    public boolean isAsynchronous(Invoker<?> invoker) {
+        HystrixExecutionPlan plan = getExecutionPlan(invoker);
+        if (plan.getIsolationExecutor() != null) {
+            return true;
+        }
+        HystrixCommandProperties properties = HystrixPropertiesFactory.getCommandProperties(HystrixCommandKey.Factory.asKey(plan.getCommandName()),
+                plan.getCommandPropertiesDefaults());
+        return (properties.executionIsolationStrategy().get() == ExecutionIsolationStrategy.THREAD);
+    }
 
-        CircuitBreakerAttribute attr = invoker.getCircuitBreakerAttribute();
+    /**
+     * Write the circuit's properties and create its Hystrix circuit breaker, metrics and thread pool by constructing, but not executing, a command. Threads
+     * of the pool are still started on demand.
+     */
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void prepare(Invoker<?> invoker) {
+        HystrixExecutionPlan plan = getExecutionPlan(invoker);
+        if (log.isDebugEnabled()) {
+            log.debug("Preparing circuit breaker command '{}' around {}", plan.getCommandName(), invoker.getMethod());
+        }
+        new HystrixInvokerCommand((Invoker) invoker, plan, fallbackRegistry);
+    }
 
-        String circuitBreakerName = determineCommandName(attr);
-        String circuitBreakerGroup = determineGroupName(attr);
-        String threadPoolName = determineThreadPoolName(attr);
+    @Override
+    public <T> Observable<T> observe(Invoker<T> invoker) {
+        CommandRunner<T, Observable<T>> runner = new CommandRunner<T, Observable<T>>() {
+            @Override
+            public Observable<T> run(HystrixExecutable<T> command) {
+                if (command instanceof HystrixInvokerCommand) {
+                    return ((HystrixInvokerCommand<T>) command).observeCommand();
+                }
+                return command.observe();
+            }
+        };
+        return translateErrors(executeInternal(invoker, runner));
+    }
 
-        if (!CONFIGURED_BREAKERS.containsKey(circuitBreakerName)) {
-            synchronized (circuitBreakerName) {
-                if (!CONFIGURED_BREAKERS.containsKey(circuitBreakerName)) {
-                    for (Map.Entry<String, String> entry : attr.getProperties().entrySet()) {
-                        String commandKey = String.format(INSTANCE_COMMAND_PROP_KEY_FORMAT, circuitBreakerName, entry.getKey());
-                        configuration.setProperty(commandKey, entry.getValue());
-                        String threadPoolKey = String.format(INSTANCE_THREADPOOL_PROP_KEY_FORMAT, threadPoolName, entry.getKey());
-                        configuration.setProperty(threadPoolKey, entry.getValue());
-                        String collapserKey = String.format(INSTANCE_COLLAPSER_PROP_KEY_FORMAT, threadPoolName, entry.getKey());
-                        configuration.setProperty(collapserKey, entry.getValue());
-                    }
-                    CONFIGURED_BREAKERS.put(circuitBreakerName, Boolean.TRUE);
+    @Override
+    public <T> Observable<T> toObservable(Invoker<T> invoker) {
+        CommandRunner<T, Observable<T>> runner = new CommandRunner<T, Observable<T>>() {
+            @Override
+            public Observable<T> run(HystrixExecutable<T> command) {
+                if (command instanceof HystrixInvokerCommand) {
+                    return ((HystrixInvokerCommand<T>) command).toObservableCommand();
                 }
+                return ((HystrixCollapser<?, T, ?>) command).toObservable();
             }
+        };
+        return translateErrors(executeInternal(invoker, runner));
+    }
+
+    @Override
+    public <T> Observable<T> wrapObservable(Invoker<Observable<T>> invoker) {
+        HystrixExecutionPlan plan = getExecutionPlan(invoker);
+        if (log.isDebugEnabled()) {
+            log.debug("Creating circuit breaker observable '{}' around {}", plan.getCommandName(), invoker.getMethod());
         }
+        return Observable.create(new HystrixObservableExecution<T>(invoker, plan, fallbackRegistry));
+    }
+
+    private static <T> Observable<T> translateErrors(Observable<T> observable) {
+        return observable.onErrorResumeNext(new Func1<Throwable, Observable<T>>() {
+            @Override
+            public Observable<T> call(Throwable t) {
+                if (t instanceof HystrixRuntimeException) {
+                    return Observable.error(translateException((HystrixRuntimeException) t));
+                }
+                return Observable.error(t);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T, J> J executeInternal(Invoker<T> invoker, CommandRunner<T, J> runner) {
+
+        HystrixExecutionPlan plan = getExecutionPlan(invoker);
 
         if (log.isDebugEnabled()) {
-            StringBuilder builder = new StringBuilder();
-            Iterator<String> keyIterator = configuration.getKeys();
-            while (keyIterator.hasNext()) {
-                String key = keyIterator.next();
-                builder.append(System.getProperty("line.separator"))
-                        .append("\t")
-                        .append(key)
-                        .append(" : ")
-                        .append(configuration.getString(key));
+            log.debug("Creating circuit breaker command '{}' around {}", plan.getCommandName(), invoker.getMethod());
+        }
+
+        HystrixExecutable<T> command;
+        if (plan.getBatchMethod() != null) {
+            command = new HystrixInvokerCollapser<T>(invoker, plan, fallbackRegistry);
+        } else {
+            command = new HystrixInvokerCommand<T>(invoker, plan, fallbackRegistry);
+        }
+
+        try {
+            return (J) runner.run(command);
+        } catch (HystrixRuntimeException e) {
+            throw translateException(e);
+        }
+    }
+
+    /**
+     * Translate a Hystrix failure into the corresponding {@link CircuitBreakerException}.
+     */
+    static RuntimeException translateException(HystrixRuntimeException e) {
+        Throwable t = e.getCause();
+        if (t instanceof CircuitBreakerException) {
+            return (CircuitBreakerException) t;
+        } else if (t instanceof TimeoutException) {
+            return new CircuitTimeoutException(t.getMessage(), t);
+        } else if (t instanceof RejectedExecutionException) {
+            return new CircuitOverloadException(t.getMessage(), t);
+        }
+        return new CircuitBreakerException(t);
+    }
+
+    /**
+     * Return the execution plan for the attribute of the given invoker, compiling it on first use.
+     * 
+     * <p>
+     * A circuit is configured by the first attribute of its name, which determines its Hystrix properties and its status. Other attributes of the same name
+     * (e.g. of another method sharing the circuit) get plans of their own for their fallback and batch method, but share the circuit as configured. A
+     * changed attribute of the method the circuit was configured from (e.g. after the attribute was refreshed with new placeholder values) reconfigures the
+     * circuit.
+     */
+    private HystrixExecutionPlan getExecutionPlan(Invoker<?> invoker) {
+        CircuitBreakerAttribute attr = invoker.getCircuitBreakerAttribute();
+        CircuitPlans plans = executionPlans.get(attr.getName());
+        HystrixExecutionPlan plan = (plans != null ? plans.find(attr) : null);
+        if (plan != null) {
+            return plan;
+        }
+        synchronized (executionPlans) {
+            plans = executionPlans.get(attr.getName());
+            if (plans == null) {
+                plan = createExecutionPlan(attr, invoker, null);
+                executionPlans.put(attr.getName(), new CircuitPlans(attr, plan, invoker));
+                if (mbeanRegistrar != null) {
+                    mbeanRegistrar.register(plan.getStatus());
+                }
+                return plan;
             }
-            log.debug("Configured Hystrix Properties: {}", builder);
+            plan = plans.find(attr);
+            if (plan != null) {
+                return plan;
+            }
+            int equal = plans.indexOfEqual(attr);
+            if (equal >= 0) {
+                // an equal attribute, e.g. a refreshed one: alias its plan, so that the attribute is matched by identity from now on
+                plan = plans.plans[equal];
+                executionPlans.put(attr.getName(), plans.withAlias(equal, attr));
+                return plan;
+            }
+            HystrixExecutionPlan first = plans.plans[0];
+            if (plans.isConfiguredFor(invoker)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Reconfiguring circuit breaker '{}' redefined by {}", attr.getName(), invoker.getMethod());
+                }
+                reconfigureCircuit(first, attr);
+                plan = createExecutionPlan(attr, invoker, first.getStatus());
+                executionPlans.put(attr.getName(), plans.withFirst(attr, plan));
+                return plan;
+            }
+            if (!attr.getProperties().equals(first.getAttribute().getProperties())) {
+                log.warn("Circuit breaker '{}' is defined with different properties by {}; the properties of its first definition apply",
+                        attr.getName(), invoker.getMethod());
+            }
+            plan = createExecutionPlan(attr, invoker, first.getStatus());
+            executionPlans.put(attr.getName(), plans.with(attr, plan));
+            return plan;
         }
+    }
 
-        final HystrixFallback<?> fallback = determineFallback(attr);
+    /**
+     * Compile the plan of the given attribute. The first plan of a circuit configures it; further plans share the status of the first.
+     */
+    private HystrixExecutionPlan createExecutionPlan(CircuitBreakerAttribute attr, Invoker<?> invoker, HystrixCircuitBreakerStatus sharedStatus) {
+        String circuitBreakerName = determineCommandName(attr);
+        String circuitBreakerGroup = determineGroupName(attr);
+        String threadPoolName = determineThreadPoolName(attr);
 
-        log.debug("Creating circuit breaker command '{}' around {}", circuitBreakerName, new Object() {
-            public String toString() {
-                return invoker.getMethod().toString();
+        if (sharedStatus == null) {
+            for (Map.Entry<String, String> entry : attr.getProperties().entrySet()) {
+                setCircuitProperty(configuration, circuitBreakerName, threadPoolName, entry.getKey(), entry.getValue());
             }
-        });
+        }
+
+        HystrixCommandProperties.Setter commandPropertiesDefaults = HystrixCommandProperties.Setter();
+        Executor circuitIsolationExecutor = null;
+        if (defaultIsolationStrategy != null) {
+            commandPropertiesDefaults.withExecutionIsolationStrategy(defaultIsolationStrategy);
+        } else if (isolationExecutor != null && !attr.getProperties().containsKey(ISOLATION_STRATEGY_PROPERTY)) {
+            // Hystrix only bounds concurrency here, the executor supplies the thread
+            commandPropertiesDefaults.withExecutionIsolationStrategy(ExecutionIsolationStrategy.SEMAPHORE);
+            circuitIsolationExecutor = isolationExecutor;
+        }
 
         HystrixCommand.Setter setter = HystrixCommand.Setter
                 .withGroupKey(HystrixCommandGroupKey.Factory.asKey(circuitBreakerGroup))
                 .andCommandKey(HystrixCommandKey.Factory.asKey(circuitBreakerName))
-                .andThreadPoolKey(HystrixThreadPoolKey.Factory.asKey(threadPoolName));
+                .andThreadPoolKey(HystrixThreadPoolKey.Factory.asKey(threadPoolName))
+                .andCommandPropertiesDefaults(commandPropertiesDefaults);
+
+        Method batchMethod = determineBatchMethod(attr, invoker);
+        HystrixCollapser.Setter collapserSetter = null;
+        if (batchMethod != null) {
+            collapserSetter = HystrixCollapser.Setter.withCollapserKey(HystrixCollapserKey.Factory.asKey(circuitBreakerName)).andScope(Scope.GLOBAL);
+        }
 
-        HystrixCommand<T> command = new HystrixCommand<T>(setter) {
+        HystrixCircuitBreakerStatus status = sharedStatus;
+        if (status == null) {
+            status = new HystrixCircuitBreakerStatus(attr, circuitBreakerName, threadPoolName, commandPropertiesDefaults, circuitIsolationExecutor,
+                    configuration);
+        }
 
-            @Override
-            protected T run() throws Exception {
-                try {
-                    return invoker.invoke();
-                } catch (Exception e) {
-                    if (e.getCause() != null && e.getCause() instanceof Exception) {
-                        e = ((Exception) e.getCause());
-                    }
-                    throw e;
-                }
-            }
+        HystrixExecutionPlan plan = new HystrixExecutionPlan(attr, circuitBreakerName, circuitBreakerGroup, threadPoolName, setter,
+                commandPropertiesDefaults, circuitIsolationExecutor, batchMethod, collapserSetter, determineCacheKeyGenerator(attr),
+                isInterruptCallerOnTimeout(attr), determineFallbackClass(attr), status, eventListener);
 
-            @Override
-            protected T getFallback() {
-                if (fallback == null || fallback instanceof FailFastFallback) {
-                    return super.getFallback();
-                } else if (fallback instanceof FailSilentFallback) {
-                    return null;
-                } else {
-                    return (T) fallback.fallback();
-                }
+        if (log.isDebugEnabled()) {
+            log.debug("Configured circuit breaker '{}': {}", circuitBreakerName, snapshotConfiguration(plan));
+        }
+
+        return plan;
+    }
+
+    /**
+     * Write the properties of the given attribute over those of the circuit configured by the given plan, clearing properties the attribute no longer
+     * sets. Hystrix reads its properties dynamically, so the circuit picks them up with its next command.
+     */
+    private void reconfigureCircuit(HystrixExecutionPlan configuring, CircuitBreakerAttribute attr) {
+        String commandName = configuring.getCommandName();
+        String threadPoolName = configuring.getThreadPoolName();
+        for (String key : configuring.getAttribute().getProperties().keySet()) {
+            if (!attr.getProperties().containsKey(key)) {
+                configuration.clearProperty(String.format(INSTANCE_COMMAND_PROP_KEY_FORMAT, commandName, key));
+                configuration.clearProperty(String.format(INSTANCE_THREADPOOL_PROP_KEY_FORMAT, threadPoolName, key));
+                configuration.clearProperty(String.format(INSTANCE_COLLAPSER_PROP_KEY_FORMAT, commandName, key));
             }
-        };
+        }
+        for (Map.Entry<String, String> entry : attr.getProperties().entrySet()) {
+            setCircuitProperty(configuration, commandName, threadPoolName, entry.getKey(), entry.getValue());
+        }
+    }
 
-        try {
-            return (J) runner.run(command);
-        } catch (HystrixRuntimeException e) {
-            Throwable t = e.getCause();
-            if (t instanceof CircuitBreakerException) {
-                throw (CircuitBreakerException) t.getCause();
-            } else if (t instanceof TimeoutException) {
-                throw new CircuitTimeoutException(t.getMessage(), t);
-            } else if (t instanceof RejectedExecutionException) {
-                throw new CircuitOverloadException(t.getMessage(), t);
+    /**
+     * Set a property of a circuit as Hystrix command, thread pool and collapser property, so that it applies whichever of them it belongs to.
+     */
+    static void setCircuitProperty(AbstractConfiguration configuration, String commandName, String threadPoolName, String key, String value) {
+        configuration.setProperty(String.format(INSTANCE_COMMAND_PROP_KEY_FORMAT, commandName, key), value);
+        configuration.setProperty(String.format(INSTANCE_THREADPOOL_PROP_KEY_FORMAT, threadPoolName, key), value);
+        configuration.setProperty(String.format(INSTANCE_COLLAPSER_PROP_KEY_FORMAT, commandName, key), value);
+    }
+
+    /**
+     * Build a snapshot of the effective Hystrix command, thread pool and collapser properties of the given circuit, including the values Hystrix falls back
+     * to when a property is not set explicitly.
+     */
+    private Map<String, String> snapshotConfiguration(HystrixExecutionPlan plan) {
+        Map<String, String> snapshot = new TreeMap<String, String>();
+        addProperties(snapshot, "command.", HystrixCommandProperties.class,
+                HystrixPropertiesFactory.getCommandProperties(HystrixCommandKey.Factory.asKey(plan.getCommandName()),
+                        plan.getCommandPropertiesDefaults()));
+        addProperties(snapshot, "threadpool.", HystrixThreadPoolProperties.class,
+                HystrixPropertiesFactory.getThreadPoolProperties(HystrixThreadPoolKey.Factory.asKey(plan.getThreadPoolName()), null));
+        addProperties(snapshot, "collapser.", HystrixCollapserProperties.class,
+                HystrixPropertiesFactory.getCollapserProperties(HystrixCollapserKey.Factory.asKey(plan.getCommandName()), null));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    private static void addProperties(Map<String, String> snapshot, String prefix, Class<?> propertiesType, Object properties) {
+        for (Method method : propertiesType.getMethods()) {
+            if (!Modifier.isStatic(method.getModifiers()) && method.getParameterTypes().length == 0
+                    && HystrixProperty.class.isAssignableFrom(method.getReturnType())) {
+                HystrixProperty<?> property = (HystrixProperty<?>) ReflectionUtils.invokeMethod(method, properties);
+                snapshot.put(prefix + method.getName(), (property != null ? String.valueOf(property.get()) : null));
             }
-            throw new CircuitBreakerException(t);
         }
     }
 
@@ -266,32 +632,145 @@ public class HystrixCircuitManager implements CircuitManager, InitializingBean,
         return attr.getName();
     }
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
-    private HystrixFallback<?> determineFallback(CircuitBreakerAttribute attr) {
-        Map<String, String> properties = attr.getProperties();
-        String fallbackClassName = null;
-        for (Map.Entry<String, String> entry : properties.entrySet()) {
-            if (entry.getKey().equals("fallbackClass")) {
-                fallbackClassName = entry.getValue();
-            }
+    private KeyGenerator determineCacheKeyGenerator(CircuitBreakerAttribute attr) {
+        String requestCache = attr.getProperties().get(REQUEST_CACHE_PROPERTY);
+        return (requestCache != null && Boolean.parseBoolean(requestCache.trim()) ? cacheKeyGenerator : null);
+    }
+
+    /**
+     * Semaphore-isolated calls run on the caller's thread, which may belong to a servlet container or a shared pool, so interrupting it on timeout is opt-in.
+     */
+    private boolean isInterruptCallerOnTimeout(CircuitBreakerAttribute attr) {
+        String interruptCaller = attr.getProperties().get(INTERRUPT_CALLER_ON_TIMEOUT_PROPERTY);
+        return (interruptCaller != null && Boolean.parseBoolean(interruptCaller.trim()));
+    }
+
+    /**
+     * Resolve the batch method named by the {@code batchMethod} property. Only methods with a single argument can be collapsed.
+     */
+    private Method determineBatchMethod(CircuitBreakerAttribute attr, Invoker<?> invoker) {
+        String batchMethodName = attr.getProperties().get(BATCH_METHOD_PROPERTY);
+
+        if (StringUtils.isBlank(batchMethodName)) {
+            return null;
         }
 
+        if (invoker.getMethod().getParameterTypes().length != 1) {
+            throw new CircuitBreakerException("Circuit breaker '" + attr.getName() + "' declares a batch method but " + invoker.getMethod()
+                    + " does not take exactly one argument");
+        }
+        return HystrixBatchInvoker.findBatchMethod(invoker.getTargetClass(), batchMethodName.trim());
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private Class<? extends HystrixFallback> determineFallbackClass(CircuitBreakerAttribute attr) {
+        String fallbackClassName = attr.getProperties().get("fallbackClass");
+
         if (StringUtils.isBlank(fallbackClassName)) {
             return null;
         }
 
-        Class<? extends HystrixFallback> fallbackClass;
+        Class<?> fallbackClass;
         try {
-            fallbackClass = (Class<? extends HystrixFallback>) Class.forName(fallbackClassName);
+            fallbackClass = ClassUtils.forName(fallbackClassName.trim(), getClass().getClassLoader());
         } catch (ClassNotFoundException e) {
             throw new CircuitBreakerException(e.getMessage(), e);
         }
 
-        try {
-            fallbackClass.getDeclaredConstructor().setAccessible(true);
-            return fallbackClass.getDeclaredConstructor().newInstance();
-        } catch (Exception e) {
-            throw new CircuitBreakerException(e.getMessage(), e);
+        if (!HystrixFallback.class.isAssignableFrom(fallbackClass)) {
+            throw new CircuitBreakerException("Fallback class " + fallbackClassName + " does not implement " + HystrixFallback.class.getName());
+        }
+        return (Class<? extends HystrixFallback>) fallbackClass;
+    }
+
+    /**
+     * The plans of a circuit, each with the attribute instance it is looked up by, and the method the circuit was configured for. The first plan is the one the
+     * circuit is configured from; further plans belong to other attributes sharing the name. An attribute equal to that of a plan is an alias of the plan, so
+     * that lookups only ever compare attributes by identity. Copied on write under the lock of the plans map.
+     */
+    private static final class CircuitPlans {
+
+        private final CircuitBreakerAttribute[] attributes;
+
+        private final HystrixExecutionPlan[] plans;
+
+        private final Method method;
+
+        private final Class<?> targetClass;
+
+        CircuitPlans(CircuitBreakerAttribute attr, HystrixExecutionPlan plan, Invoker<?> invoker) {
+            this(new CircuitBreakerAttribute[] { attr }, new HystrixExecutionPlan[] { plan }, invoker.getMethod(), invoker.getTargetClass());
+        }
+
+        private CircuitPlans(CircuitBreakerAttribute[] attributes, HystrixExecutionPlan[] plans, Method method, Class<?> targetClass) {
+            this.attributes = attributes;
+            this.plans = plans;
+            this.method = method;
+            this.targetClass = targetClass;
+        }
+
+        /**
+         * Return whether the given invoker calls the method, on the target class, that the circuit was configured for.
+         */
+        boolean isConfiguredFor(Invoker<?> invoker) {
+            return (invoker.getTargetClass() == targetClass && invoker.getMethod().equals(method));
+        }
+
+        HystrixExecutionPlan find(CircuitBreakerAttribute attr) {
+            for (int i = 0; i < attributes.length; i++) {
+                if (attributes[i] == attr) {
+                    return plans[i];
+                }
+            }
+            return null;
+        }
+
+        int indexOfEqual(CircuitBreakerAttribute attr) {
+            for (int i = 0; i < plans.length; i++) {
+                if (plans[i].isPlanFor(attr)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        CircuitPlans with(CircuitBreakerAttribute attr, HystrixExecutionPlan plan) {
+            CircuitBreakerAttribute[] extendedAttributes = new CircuitBreakerAttribute[attributes.length + 1];
+            System.arraycopy(attributes, 0, extendedAttributes, 0, attributes.length);
+            extendedAttributes[attributes.length] = attr;
+            HystrixExecutionPlan[] extendedPlans = new HystrixExecutionPlan[plans.length + 1];
+            System.arraycopy(plans, 0, extendedPlans, 0, plans.length);
+            extendedPlans[plans.length] = plan;
+            return new CircuitPlans(extendedAttributes, extendedPlans, method, targetClass);
+        }
+
+        /**
+         * Return these plans with the given plan as the one the circuit is configured from. The plan it replaces is kept for callers still holding its
+         * attribute.
+         */
+        CircuitPlans withFirst(CircuitBreakerAttribute attr, HystrixExecutionPlan plan) {
+            CircuitPlans extended = with(attr, plan);
+            int last = extended.plans.length - 1;
+            extended.attributes[last] = extended.attributes[0];
+            extended.plans[last] = extended.plans[0];
+            extended.attributes[0] = attr;
+            extended.plans[0] = plan;
+            return extended;
+        }
+
+        /**
+         * Return these plans with the given attribute as alias of the plan at the given index, replacing an earlier alias of the plan if there is one, so
+         * that repeated refreshes do not accumulate aliases.
+         */
+        CircuitPlans withAlias(int index, CircuitBreakerAttribute attr) {
+            for (int i = 0; i < attributes.length; i++) {
+                if (plans[i] == plans[index] && attributes[i] != plans[i].getAttribute()) {
+                    CircuitBreakerAttribute[] replaced = attributes.clone();
+                    replaced[i] = attr;
+                    return new CircuitPlans(replaced, plans, method, targetClass);
+                }
+            }
+            return with(attr, plans[index]);
         }
     }
 
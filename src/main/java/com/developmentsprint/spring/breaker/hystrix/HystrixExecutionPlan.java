@@ -0,0 +1,211 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.hystrix;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerEventListener;
+import com.developmentsprint.spring.breaker.hystrix.fallback.FailFastFallback;
+import com.developmentsprint.spring.breaker.hystrix.fallback.FailSilentFallback;
+import com.developmentsprint.spring.breaker.hystrix.fallback.HystrixFallback;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttribute;
+import com.netflix.hystrix.HystrixCollapser;
+import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.HystrixCommandProperties;
+
+/**
+ * Immutable, precompiled description of how a single circuit is executed by the {@link HystrixCircuitManager}.
+ * 
+ * <p>
+ * A plan is built once per resolved {@link CircuitBreakerAttribute} and holds everything that does not vary between invocations: the Hystrix keys and
+ * {@link HystrixCommand.Setter}, the batch method of collapsed circuits, the request cache key generator, the fallback type and the policy used to apply it.
+ * The per-call path only has to look up the plan and construct the command.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+final class HystrixExecutionPlan {
+
+    /**
+     * How the result of {@link HystrixCommand#getFallback()} is determined.
+     */
+    enum FallbackPolicy {
+
+        /** No fallback, failures are propagated. */
+        FAIL_FAST,
+
+        /** Failures are swallowed and {@code null} is returned. */
+        FAIL_SILENT,
+
+        /** Failures are handled by a custom {@link HystrixFallback}. */
+        CUSTOM
+    }
+
+    private final CircuitBreakerAttribute attribute;
+
+    private final String commandName;
+
+    private final String groupName;
+
+    private final String threadPoolName;
+
+    private final HystrixCommand.Setter setter;
+
+    private final HystrixCommandProperties.Setter commandPropertiesDefaults;
+
+    private final Executor isolationExecutor;
+
+    private final Method batchMethod;
+
+    private final HystrixCollapser.Setter collapserSetter;
+
+    private final KeyGenerator cacheKeyGenerator;
+
+    private final boolean interruptCallerOnTimeout;
+
+    @SuppressWarnings("rawtypes")
+    private final Class<? extends HystrixFallback> fallbackClass;
+
+    private final FallbackPolicy fallbackPolicy;
+
+    private final HystrixCircuitBreakerStatus status;
+
+    private final CircuitBreakerEventListener eventListener;
+
+    @SuppressWarnings("rawtypes")
+    HystrixExecutionPlan(CircuitBreakerAttribute attribute, String commandName, String groupName, String threadPoolName,
+            HystrixCommand.Setter setter, HystrixCommandProperties.Setter commandPropertiesDefaults, Executor isolationExecutor, Method batchMethod,
+            HystrixCollapser.Setter collapserSetter, KeyGenerator cacheKeyGenerator, boolean interruptCallerOnTimeout,
+            Class<? extends HystrixFallback> fallbackClass, HystrixCircuitBreakerStatus status, CircuitBreakerEventListener eventListener) {
+        this.attribute = attribute;
+        this.commandName = commandName;
+        this.groupName = groupName;
+        this.threadPoolName = threadPoolName;
+        this.setter = setter;
+        this.commandPropertiesDefaults = commandPropertiesDefaults;
+        this.isolationExecutor = isolationExecutor;
+        this.batchMethod = batchMethod;
+        this.collapserSetter = collapserSetter;
+        this.cacheKeyGenerator = cacheKeyGenerator;
+        this.interruptCallerOnTimeout = interruptCallerOnTimeout;
+        this.fallbackClass = fallbackClass;
+        if (fallbackClass == null || FailFastFallback.class.equals(fallbackClass)) {
+            this.fallbackPolicy = FallbackPolicy.FAIL_FAST;
+        } else if (FailSilentFallback.class.equals(fallbackClass)) {
+            this.fallbackPolicy = FallbackPolicy.FAIL_SILENT;
+        } else {
+            this.fallbackPolicy = FallbackPolicy.CUSTOM;
+        }
+        this.status = status;
+        this.eventListener = eventListener;
+    }
+
+    /**
+     * Return whether this plan was compiled from the given attribute or an equal one. Only used when an attribute instance is first seen; from then on the
+     * instance is matched by identity.
+     */
+    boolean isPlanFor(CircuitBreakerAttribute other) {
+        return (this.attribute == other || this.attribute.equals(other));
+    }
+
+    CircuitBreakerAttribute getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Return the live status of the circuit, shared by all plans of the circuit and all callers of
+     * {@link HystrixCircuitManager#getConfiguredCircuitBreakers()}.
+     */
+    HystrixCircuitBreakerStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Return the listener to notify of the events of the circuit, or {@code null} if there is none.
+     */
+    CircuitBreakerEventListener getEventListener() {
+        return eventListener;
+    }
+
+    String getCommandName() {
+        return commandName;
+    }
+
+    String getGroupName() {
+        return groupName;
+    }
+
+    String getThreadPoolName() {
+        return threadPoolName;
+    }
+
+    HystrixCommand.Setter getSetter() {
+        return setter;
+    }
+
+    /**
+     * Return the command property defaults applied by the manager, i.e. the values used when a circuit does not configure a property itself.
+     */
+    HystrixCommandProperties.Setter getCommandPropertiesDefaults() {
+        return commandPropertiesDefaults;
+    }
+
+    /**
+     * Return the executor that runs each invocation of this circuit in place of a Hystrix thread pool, or {@code null} if the circuit is isolated by
+     * Hystrix alone.
+     */
+    Executor getIsolationExecutor() {
+        return isolationExecutor;
+    }
+
+    /**
+     * Return the batch method that collapsed calls of this circuit are merged into, or {@code null} if calls are not collapsed.
+     */
+    Method getBatchMethod() {
+        return batchMethod;
+    }
+
+    HystrixCollapser.Setter getCollapserSetter() {
+        return collapserSetter;
+    }
+
+    /**
+     * Return the generator of request cache keys, or {@code null} if results of this circuit are not cached per request.
+     */
+    KeyGenerator getCacheKeyGenerator() {
+        return cacheKeyGenerator;
+    }
+
+    /**
+     * Return whether a semaphore-isolated call that times out interrupts the calling thread, rather than only failing once it returns.
+     */
+    boolean isInterruptCallerOnTimeout() {
+        return interruptCallerOnTimeout;
+    }
+
+    @SuppressWarnings("rawtypes")
+    Class<? extends HystrixFallback> getFallbackClass() {
+        return fallbackClass;
+    }
+
+    FallbackPolicy getFallbackPolicy() {
+        return fallbackPolicy;
+    }
+
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.hystrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.ObjectUtils;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerException;
+import com.developmentsprint.spring.breaker.CircuitManager.Invoker;
+import com.developmentsprint.spring.breaker.hystrix.fallback.HystrixFallbackRegistry;
+import com.netflix.hystrix.HystrixCollapser;
+import com.netflix.hystrix.HystrixCommand;
+
+/**
+ * {@link HystrixCollapser} that merges concurrent single-argument calls of a circuit into one call of the circuit's batch method.
+ * 
+ * <p>
+ * The batch method receives the arguments of the collapsed calls as a {@link List} and returns either a {@link List} (or array) of results in the same
+ * order, or a {@link Map} of results keyed by argument. The batch call runs as a regular command of the circuit, so it is subject to the same isolation,
+ * timeout and fallback; a fallback value is handed to every collapsed call.
+ * 
+ * <p>
+ * The collapser is global per circuit, so calls on different target instances are collapsed together. They are sharded by target identity, so that every
+ * batch method call runs on the instance the collapsed calls were made on.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+class HystrixInvokerCollapser<T> extends HystrixCollapser<Object, T, HystrixInvokerCollapser.TargetedArgument> {
+
+    private final Invoker<T> invoker;
+
+    private final HystrixExecutionPlan plan;
+
+    private final HystrixFallbackRegistry fallbackRegistry;
+
+    HystrixInvokerCollapser(Invoker<T> invoker, HystrixExecutionPlan plan, HystrixFallbackRegistry fallbackRegistry) {
+        super(plan.getCollapserSetter());
+        this.invoker = invoker;
+        this.plan = plan;
+        this.fallbackRegistry = fallbackRegistry;
+    }
+
+    @Override
+    public TargetedArgument getRequestArgument() {
+        return new TargetedArgument(invoker.getTarget(), invoker.getArguments()[0]);
+    }
+
+    @Override
+    protected Collection<Collection<CollapsedRequest<T, TargetedArgument>>> shardRequests(Collection<CollapsedRequest<T, TargetedArgument>> requests) {
+        Map<Object, Collection<CollapsedRequest<T, TargetedArgument>>> shards =
+                new IdentityHashMap<Object, Collection<CollapsedRequest<T, TargetedArgument>>>();
+        for (CollapsedRequest<T, TargetedArgument> request : requests) {
+            Collection<CollapsedRequest<T, TargetedArgument>> shard = shards.get(request.getArgument().target);
+            if (shard == null) {
+                shard = new ArrayList<CollapsedRequest<T, TargetedArgument>>();
+                shards.put(request.getArgument().target, shard);
+            }
+            shard.add(request);
+        }
+        return shards.values();
+    }
+
+    @Override
+    protected HystrixCommand<Object> createCommand(Collection<CollapsedRequest<T, TargetedArgument>> requests) {
+        // requests are sharded by target, so all of them share the target of the first one
+        Object target = requests.iterator().next().getArgument().target;
+        List<Object> arguments = new ArrayList<Object>(requests.size());
+        for (CollapsedRequest<T, TargetedArgument> request : requests) {
+            arguments.add(request.getArgument().argument);
+        }
+        HystrixBatchInvoker batchInvoker = new HystrixBatchInvoker(invoker, target, plan.getBatchMethod(), arguments);
+        return new HystrixInvokerCommand<Object>(batchInvoker, plan, fallbackRegistry) {
+            @Override
+            protected Object getFallback() {
+                return new FallbackResponse(super.getFallback());
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void mapResponseToRequests(Object batchResponse, Collection<CollapsedRequest<T, TargetedArgument>> requests) {
+        if (batchResponse == null || batchResponse instanceof FallbackResponse) {
+            Object response = (batchResponse != null ? ((FallbackResponse) batchResponse).value : null);
+            for (CollapsedRequest<T, TargetedArgument> request : requests) {
+                request.setResponse((T) response);
+            }
+        } else if (batchResponse instanceof Map) {
+            Map<?, ?> responses = (Map<?, ?>) batchResponse;
+            for (CollapsedRequest<T, TargetedArgument> request : requests) {
+                request.setResponse((T) responses.get(request.getArgument().argument));
+            }
+        } else {
+            List<?> responses;
+            if (batchResponse instanceof List) {
+                responses = (List<?>) batchResponse;
+            } else if (batchResponse instanceof Collection) {
+                responses = new ArrayList<Object>((Collection<?>) batchResponse);
+            } else if (batchResponse.getClass().isArray()) {
+                responses = Arrays.asList(ObjectUtils.toObjectArray(batchResponse));
+            } else {
+                setException(requests, "Batch method " + plan.getBatchMethod() + " returned a " + batchResponse.getClass().getName()
+                        + " instead of a list, array or map of results");
+                return;
+            }
+            if (responses.size() != requests.size()) {
+                setException(requests, "Batch method " + plan.getBatchMethod() + " returned " + responses.size() + " results for " + requests.size()
+                        + " requests");
+                return;
+            }
+            int i = 0;
+            for (CollapsedRequest<T, TargetedArgument> request : requests) {
+                request.setResponse((T) responses.get(i++));
+            }
+        }
+    }
+
+    private static void setException(Collection<? extends CollapsedRequest<?, ?>> requests, String message) {
+        CircuitBreakerException e = new CircuitBreakerException(message);
+        for (CollapsedRequest<?, ?> request : requests) {
+            request.setException(e);
+        }
+    }
+
+    /**
+     * The argument of a collapsed call together with the target it was made on.
+     */
+    static final class TargetedArgument {
+
+        private final Object target;
+
+        private final Object argument;
+
+        private TargetedArgument(Object target, Object argument) {
+            this.target = target;
+            this.argument = argument;
+        }
+
+    }
+
+    /**
+     * Marks the result of the batch command's fallback, which applies to every collapsed request rather than being a batch of results.
+     */
+    private static final class FallbackResponse {
+
+        private final Object value;
+
+        private FallbackResponse(Object value) {
+            this.value = value;
+        }
+
+    }
+
+}
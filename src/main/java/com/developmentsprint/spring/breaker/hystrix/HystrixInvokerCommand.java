@@ -0,0 +1,324 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.hystrix;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.subjects.ReplaySubject;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerEventListener;
+import com.developmentsprint.spring.breaker.CircuitBreakerEventListener.Outcome;
+import com.developmentsprint.spring.breaker.CircuitBreakerException;
+import com.developmentsprint.spring.breaker.CircuitManager.Invoker;
+import com.developmentsprint.spring.breaker.hystrix.fallback.HystrixFallbackRegistry;
+import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.HystrixCommandProperties.ExecutionIsolationStrategy;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestContext;
+
+/**
+ * {@link HystrixCommand} that runs an {@link Invoker} according to a {@link HystrixExecutionPlan}.
+ * 
+ * <p>
+ * Thread-isolated commands are timed out by Hystrix itself. Semaphore-isolated commands run on the caller thread, so their timeout is enforced here through
+ * a {@link HystrixSemaphoreTimeout}. Circuits with an {@link HystrixExecutionPlan#getIsolationExecutor() isolation executor} are semaphore-isolated in
+ * Hystrix and hand the invocation to that executor.
+ * 
+ * <p>
+ * Execution, queue wait and custom fallback times are recorded in the {@link HystrixCircuitBreakerStatus} of the circuit, and reported to the
+ * {@link CircuitBreakerEventListener} of the plan, if any, along with short-circuits, rejections and timeouts.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+class HystrixInvokerCommand<T> extends HystrixCommand<T> {
+
+    private final Invoker<T> invoker;
+
+    private final HystrixExecutionPlan plan;
+
+    private final HystrixFallbackRegistry fallbackRegistry;
+
+    private boolean onIsolationExecutor;
+
+    /**
+     * Creation time of this command; the time until it starts executing is recorded as the queue wait of the circuit.
+     */
+    private final long createdNanos = System.nanoTime();
+
+    HystrixInvokerCommand(Invoker<T> invoker, HystrixExecutionPlan plan, HystrixFallbackRegistry fallbackRegistry) {
+        super(plan.getSetter());
+        this.invoker = invoker;
+        this.plan = plan;
+        this.fallbackRegistry = fallbackRegistry;
+    }
+
+    /**
+     * Queue this command for asynchronous execution. Hystrix runs semaphore-isolated commands synchronously, so circuits with an isolation executor run the
+     * whole command on that executor instead.
+     */
+    Future<T> queueCommand() {
+        Executor executor = plan.getIsolationExecutor();
+        if (executor == null) {
+            return queue();
+        }
+        FutureTask<T> task = new FutureTask<T>(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                onIsolationExecutor = true;
+                return execute();
+            }
+        });
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Return an {@link Observable} that executes this command once subscribed to. Circuits with an isolation executor subscribe on that executor, so the
+     * subscriber is not blocked while the semaphore-isolated command runs.
+     */
+    Observable<T> toObservableCommand() {
+        final Executor executor = plan.getIsolationExecutor();
+        if (executor == null) {
+            return toObservable();
+        }
+        onIsolationExecutor = true;
+        return Observable.create(new Observable.OnSubscribe<T>() {
+            @Override
+            public void call(final Subscriber<? super T> subscriber) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        toObservable().subscribe(subscriber);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Return an {@link Observable} of this command that has already started executing.
+     */
+    Observable<T> observeCommand() {
+        if (plan.getIsolationExecutor() == null) {
+            return observe();
+        }
+        ReplaySubject<T> subject = ReplaySubject.create();
+        toObservableCommand().subscribe(subject);
+        return subject;
+    }
+
+    @Override
+    protected T run() throws Exception {
+        if (getProperties().executionIsolationStrategy().get() != ExecutionIsolationStrategy.SEMAPHORE) {
+            return invoke();
+        }
+
+        if (plan.getIsolationExecutor() != null && !onIsolationExecutor) {
+            return invokeOnIsolationExecutor(plan.getIsolationExecutor());
+        }
+
+        HystrixSemaphoreTimeout timeout = HystrixSemaphoreTimeout.start(getProperties(), plan.isInterruptCallerOnTimeout());
+        if (timeout == null) {
+            return invoke();
+        }
+
+        T result;
+        try {
+            result = invoke();
+        } catch (Exception e) {
+            if (timeout.complete()) {
+                throw e;
+            }
+            throw timeoutException(timeout, e);
+        }
+        if (!timeout.complete()) {
+            throw timeoutException(timeout, null);
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected T getFallback() {
+        notifyFallback();
+        switch (plan.getFallbackPolicy()) {
+        case FAIL_SILENT:
+            return null;
+        case CUSTOM:
+            long start = System.nanoTime();
+            try {
+                return (T) fallbackRegistry.getFallback(plan.getFallbackClass()).fallback();
+            } finally {
+                plan.getStatus().getFallbackLatency().record(System.nanoTime() - start);
+            }
+        default:
+            return super.getFallback();
+        }
+    }
+
+    /**
+     * Return the request cache key of this call if the circuit caches results per request and a request context is active on the calling thread.
+     */
+    @Override
+    protected String getCacheKey() {
+        KeyGenerator keyGenerator = plan.getCacheKeyGenerator();
+        if (keyGenerator == null || !HystrixRequestContext.isCurrentThreadInitialized()) {
+            return null;
+        }
+        Object[] arguments = invoker.getArguments();
+        return String.valueOf(keyGenerator.generate(invoker.getTarget(), invoker.getMethod(), (arguments != null ? arguments : new Object[0])));
+    }
+
+    /**
+     * Run the invocation on the isolation executor and wait for it up to the timeout. An invocation that times out keeps its slot in the concurrency limit of
+     * the circuit until it actually finishes, since cancelling does not stop a running task.
+     */
+    private T invokeOnIsolationExecutor(Executor executor) throws Exception {
+        final HystrixCircuitBreakerStatus status = plan.getStatus();
+        int maxConcurrentRequests = getProperties().executionIsolationSemaphoreMaxConcurrentRequests().get();
+        if (!status.tryAcquireIsolatedTask(maxConcurrentRequests)) {
+            CircuitBreakerEventListener listener = plan.getEventListener();
+            if (listener != null) {
+                listener.onRejection(status);
+            }
+            throw new RejectedExecutionException("Circuit breaker '" + plan.getCommandName() + "' has " + maxConcurrentRequests
+                    + " invocations still running on its isolation executor");
+        }
+        final FutureTask<T> task = new FutureTask<T>(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return invoke();
+            }
+        });
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    // returns once the invocation finished, or right away if it was cancelled before it started
+                    try {
+                        task.run();
+                    } finally {
+                        status.releaseIsolatedTask();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            status.releaseIsolatedTask();
+            throw e;
+        }
+
+        int timeout = getProperties().executionIsolationThreadTimeoutInMilliseconds().get();
+        try {
+            return (timeout > 0 ? task.get(timeout, TimeUnit.MILLISECONDS) : task.get());
+        } catch (TimeoutException e) {
+            task.cancel(getProperties().executionIsolationThreadInterruptOnTimeout().get());
+            notifyTimeout();
+            throw new TimeoutException("Circuit breaker '" + plan.getCommandName() + "' timed out after " + timeout + "ms");
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw (Exception) e.getCause();
+        }
+    }
+
+    private T invoke() throws Exception {
+        HystrixCircuitBreakerStatus status = plan.getStatus();
+        long start = System.nanoTime();
+        long queueWaitNanos = start - createdNanos;
+        status.getQueueWaitLatency().record(queueWaitNanos);
+        Outcome outcome = Outcome.FAILURE;
+        try {
+            T result = invoker.invoke();
+            outcome = Outcome.SUCCESS;
+            return result;
+        } catch (CircuitBreakerException e) {
+            // unwrap checked exceptions the invoker could not throw directly
+            if (e.getClass() == CircuitBreakerException.class && e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        } finally {
+            long executionNanos = System.nanoTime() - start;
+            status.getExecutionLatency().record(executionNanos);
+            CircuitBreakerEventListener listener = plan.getEventListener();
+            if (listener != null) {
+                listener.onExecution(status, outcome, getIsolation(), queueWaitNanos, executionNanos);
+                status.notifyStateTransition(listener);
+            }
+        }
+    }
+
+    /**
+     * Return the isolation reported to the event listener: the Hystrix isolation strategy, or {@code EXECUTOR} for circuits with an isolation executor.
+     */
+    private String getIsolation() {
+        return (plan.getIsolationExecutor() != null ? "EXECUTOR" : getProperties().executionIsolationStrategy().get().name());
+    }
+
+    /**
+     * Notify the event listener of a timeout enforced here rather than by Hystrix.
+     */
+    private void notifyTimeout() {
+        CircuitBreakerEventListener listener = plan.getEventListener();
+        if (listener != null) {
+            listener.onTimeout(plan.getStatus());
+        }
+    }
+
+    /**
+     * Notify the event listener of the reason Hystrix falls back, if it rejected the call rather than the call failing.
+     */
+    private void notifyFallback() {
+        CircuitBreakerEventListener listener = plan.getEventListener();
+        if (listener == null) {
+            return;
+        }
+        if (isResponseShortCircuited()) {
+            listener.onShortCircuit(plan.getStatus());
+        } else if (isResponseRejected()) {
+            listener.onRejection(plan.getStatus());
+        } else if (isResponseTimedOut()) {
+            listener.onTimeout(plan.getStatus());
+        }
+        plan.getStatus().notifyStateTransition(listener);
+    }
+
+    private TimeoutException timeoutException(HystrixSemaphoreTimeout timeout, Exception cause) {
+        notifyTimeout();
+        TimeoutException e = new TimeoutException("Circuit breaker '" + plan.getCommandName() + "' timed out after " + timeout.getTimeoutInMilliseconds()
+                + "ms");
+        if (cause != null) {
+            e.initCause(cause);
+        }
+        return e;
+    }
+
+}
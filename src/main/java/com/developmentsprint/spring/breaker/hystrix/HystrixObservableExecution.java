@@ -0,0 +1,335 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.hystrix;
+
+import java.lang.ref.Reference;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ReflectionUtils;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.subscriptions.Subscriptions;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerEventListener;
+import com.developmentsprint.spring.breaker.CircuitBreakerEventListener.Outcome;
+import com.developmentsprint.spring.breaker.CircuitBreakerException;
+import com.developmentsprint.spring.breaker.CircuitManager.Invoker;
+import com.developmentsprint.spring.breaker.CircuitOpenException;
+import com.developmentsprint.spring.breaker.CircuitTimeoutException;
+import com.developmentsprint.spring.breaker.hystrix.fallback.HystrixFallbackRegistry;
+import com.netflix.hystrix.HystrixCircuitBreaker;
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.util.HystrixTimer;
+import com.netflix.hystrix.util.HystrixTimer.TimerListener;
+
+/**
+ * Subscribes to the {@link Observable} returned by an {@link Invoker} within a Hystrix circuit, without blocking any thread while it emits.
+ * 
+ * <p>
+ * Hystrix 1.3 commands can only run blocking code, so the circuit is applied around the subscription instead: the Hystrix circuit breaker is asked whether
+ * to allow the call when subscribed to, the invoker is called and its {@link Observable} subscribed to, and its items are passed on as they are emitted.
+ * Its completion or error, or the {@code execution.isolation.thread.timeoutInMilliseconds} elapsing first, is recorded in the Hystrix metrics of the circuit
+ * like the outcome of a command. Short-circuits, failures and timeouts fall back according to the plan; a custom fallback may return an {@link Observable}
+ * to continue with or a single item. The invocation is reported to the {@link CircuitBreakerEventListener} with the isolation {@code OBSERVABLE}.
+ * 
+ * <p>
+ * Hystrix records events only for its own commands and keeps the methods doing so package-private, so they are called reflectively here. If a Hystrix
+ * version lacks them, or refuses the call, a warning is logged and the events are not recorded: observables are still subscribed to, timed out and fallen
+ * back from, but their outcomes no longer count towards opening the circuit.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+final class HystrixObservableExecution<T> implements Observable.OnSubscribe<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(HystrixObservableExecution.class);
+
+    private static final String ISOLATION = "OBSERVABLE";
+
+    private static final Method MARK_SUCCESS = findMetricsMethod("markSuccess", long.class);
+
+    private static final Method MARK_FAILURE = findMetricsMethod("markFailure", long.class);
+
+    private static final Method MARK_TIMEOUT = findMetricsMethod("markTimeout", long.class);
+
+    private static final Method MARK_SHORT_CIRCUITED = findMetricsMethod("markShortCircuited");
+
+    private final Invoker<Observable<T>> invoker;
+
+    private final HystrixExecutionPlan plan;
+
+    private final HystrixFallbackRegistry fallbackRegistry;
+
+    HystrixObservableExecution(Invoker<Observable<T>> invoker, HystrixExecutionPlan plan, HystrixFallbackRegistry fallbackRegistry) {
+        this.invoker = invoker;
+        this.plan = plan;
+        this.fallbackRegistry = fallbackRegistry;
+    }
+
+    @Override
+    public void call(Subscriber<? super T> subscriber) {
+        // constructing a command registers the circuit breaker and metrics of the circuit with Hystrix, and resolves its properties
+        HystrixInvokerCommand<Observable<T>> command = new HystrixInvokerCommand<Observable<T>>(invoker, plan, fallbackRegistry);
+        HystrixCircuitBreaker circuitBreaker = HystrixCircuitBreaker.Factory.getInstance(command.getCommandKey());
+        HystrixCommandMetrics metrics = command.getMetrics();
+
+        if (circuitBreaker != null && !circuitBreaker.allowRequest()) {
+            mark(MARK_SHORT_CIRCUITED, metrics);
+            CircuitBreakerEventListener listener = plan.getEventListener();
+            if (listener != null) {
+                listener.onShortCircuit(plan.getStatus());
+                plan.getStatus().notifyStateTransition(listener);
+            }
+            fallback(subscriber, new CircuitOpenException("Circuit breaker '" + plan.getCommandName() + "' is open"));
+            return;
+        }
+
+        Execution execution = new Execution(subscriber, circuitBreaker, metrics, command.getProperties());
+        Observable<T> source;
+        try {
+            source = invoker.invoke();
+        } catch (RuntimeException e) {
+            execution.onError(e);
+            return;
+        } catch (Error e) {
+            execution.onError(e);
+            return;
+        }
+        if (source == null) {
+            execution.onCompleted();
+            return;
+        }
+        execution.start();
+        source.subscribe(execution);
+    }
+
+    /**
+     * Hand the failure of a call to the subscriber, or the result of the fallback of the circuit instead.
+     */
+    @SuppressWarnings("unchecked")
+    private void fallback(Subscriber<? super T> subscriber, RuntimeException failure) {
+        switch (plan.getFallbackPolicy()) {
+        case FAIL_SILENT:
+            subscriber.onCompleted();
+            return;
+        case CUSTOM:
+            Object fallback;
+            long start = System.nanoTime();
+            try {
+                fallback = fallbackRegistry.getFallback(plan.getFallbackClass()).fallback();
+            } catch (RuntimeException e) {
+                subscriber.onError(e);
+                return;
+            } finally {
+                plan.getStatus().getFallbackLatency().record(System.nanoTime() - start);
+            }
+            if (fallback instanceof Observable) {
+                ((Observable<T>) fallback).subscribe(subscriber);
+                return;
+            }
+            if (fallback != null) {
+                subscriber.onNext((T) fallback);
+            }
+            subscriber.onCompleted();
+            return;
+        default:
+            subscriber.onError(failure);
+        }
+    }
+
+    /**
+     * Look up a package-private event method of the Hystrix metrics, or return {@code null} if this Hystrix version has no such method or it cannot be
+     * made accessible.
+     */
+    private static Method findMetricsMethod(String name, Class<?>... parameterTypes) {
+        try {
+            Method method = ReflectionUtils.findMethod(HystrixCommandMetrics.class, name, parameterTypes);
+            if (method != null) {
+                ReflectionUtils.makeAccessible(method);
+                return method;
+            }
+        } catch (RuntimeException e) {
+            log.debug("Unable to access HystrixCommandMetrics." + name, e);
+        }
+        log.warn("HystrixCommandMetrics.{} is not available in this Hystrix version; observable circuit breaker methods will not record it", name);
+        return null;
+    }
+
+    /**
+     * Record an event in the Hystrix metrics of the circuit, unless the event method is unavailable or fails.
+     */
+    private static void mark(Method method, HystrixCommandMetrics metrics, Object... args) {
+        if (method == null) {
+            return;
+        }
+        try {
+            method.invoke(metrics, args);
+        } catch (Exception e) {
+            log.debug("Unable to record Hystrix event " + method.getName(), e);
+        }
+    }
+
+    /**
+     * Subscriber to the {@link Observable} of a single call, passing its items on and recording its outcome once, whichever of completion, error or the
+     * timeout comes first. Items and the terminal event are handed to the subscriber under this execution's monitor, so the timer cannot interleave with an
+     * item being emitted.
+     */
+    private final class Execution extends Subscriber<T> implements TimerListener {
+
+        private final Subscriber<? super T> subscriber;
+
+        private final HystrixCircuitBreaker circuitBreaker;
+
+        private final HystrixCommandMetrics metrics;
+
+        private final int timeoutInMilliseconds;
+
+        private final long start = System.nanoTime();
+
+        private boolean terminated;
+
+        private volatile Reference<TimerListener> reference;
+
+        Execution(Subscriber<? super T> subscriber, HystrixCircuitBreaker circuitBreaker, HystrixCommandMetrics metrics, HystrixCommandProperties properties) {
+            this.subscriber = subscriber;
+            this.circuitBreaker = circuitBreaker;
+            this.metrics = metrics;
+            this.timeoutInMilliseconds = properties.executionIsolationThreadTimeoutInMilliseconds().get();
+            // unsubscribing from the returned observable unsubscribes from the source
+            subscriber.add(this);
+            add(Subscriptions.create(new Action0() {
+                @Override
+                public void call() {
+                    // a call abandoned by its subscriber has no outcome to record
+                    synchronized (Execution.this) {
+                        terminate();
+                    }
+                }
+            }));
+        }
+
+        void start() {
+            if (timeoutInMilliseconds > 0) {
+                reference = HystrixTimer.getInstance().addTimerListener(this);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            synchronized (this) {
+                if (!terminated) {
+                    subscriber.onNext(item);
+                }
+            }
+        }
+
+        @Override
+        public void onCompleted() {
+            synchronized (this) {
+                if (!terminate()) {
+                    return;
+                }
+                long executionNanos = record(Outcome.SUCCESS);
+                mark(MARK_SUCCESS, metrics, TimeUnit.NANOSECONDS.toMillis(executionNanos));
+                if (circuitBreaker != null) {
+                    circuitBreaker.markSuccess();
+                }
+                notifyStateTransition();
+                subscriber.onCompleted();
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            synchronized (this) {
+                if (!terminate()) {
+                    return;
+                }
+                long executionNanos = record(Outcome.FAILURE);
+                mark(MARK_FAILURE, metrics, TimeUnit.NANOSECONDS.toMillis(executionNanos));
+                notifyStateTransition();
+                fallback(subscriber, (e instanceof CircuitBreakerException ? (CircuitBreakerException) e : new CircuitBreakerException(e)));
+            }
+        }
+
+        /**
+         * Time the call out: stop listening to the source, and fall back.
+         */
+        @Override
+        public void tick() {
+            synchronized (this) {
+                if (!terminate()) {
+                    return;
+                }
+                unsubscribe();
+                long executionNanos = record(Outcome.FAILURE);
+                mark(MARK_TIMEOUT, metrics, TimeUnit.NANOSECONDS.toMillis(executionNanos));
+                CircuitBreakerEventListener listener = plan.getEventListener();
+                if (listener != null) {
+                    listener.onTimeout(plan.getStatus());
+                }
+                notifyStateTransition();
+                fallback(subscriber, new CircuitTimeoutException("Circuit breaker '" + plan.getCommandName() + "' timed out after " + timeoutInMilliseconds
+                        + "ms"));
+            }
+        }
+
+        @Override
+        public int getIntervalTimeInMilliseconds() {
+            return timeoutInMilliseconds;
+        }
+
+        /**
+         * Mark the call as terminated and stop its timer. Returns {@code false} if it already was terminated.
+         */
+        private boolean terminate() {
+            if (terminated) {
+                return false;
+            }
+            terminated = true;
+            Reference<TimerListener> ref = reference;
+            if (ref != null) {
+                ref.clear();
+            }
+            return true;
+        }
+
+        private long record(Outcome outcome) {
+            long executionNanos = System.nanoTime() - start;
+            plan.getStatus().getExecutionLatency().record(executionNanos);
+            CircuitBreakerEventListener listener = plan.getEventListener();
+            if (listener != null) {
+                listener.onExecution(plan.getStatus(), outcome, ISOLATION, 0L, executionNanos);
+            }
+            return executionNanos;
+        }
+
+        private void notifyStateTransition() {
+            CircuitBreakerEventListener listener = plan.getEventListener();
+            if (listener != null) {
+                plan.getStatus().notifyStateTransition(listener);
+            }
+        }
+
+    }
+
+}
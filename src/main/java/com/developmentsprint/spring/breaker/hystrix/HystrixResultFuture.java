@@ -0,0 +1,84 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.hystrix;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+
+/**
+ * {@link Future} returned by {@link HystrixCircuitManager#queue}, reporting failures of the circuit as
+ * {@link com.developmentsprint.spring.breaker.CircuitBreakerException}s in the same way {@link HystrixCircuitManager#execute} does.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+class HystrixResultFuture<T> implements Future<T> {
+
+    private final Future<T> delegate;
+
+    HystrixResultFuture(Future<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return delegate.cancel(mayInterruptIfRunning);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return delegate.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+        return delegate.isDone();
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        try {
+            return delegate.get();
+        } catch (ExecutionException e) {
+            throw translate(e);
+        } catch (HystrixRuntimeException e) {
+            throw HystrixCircuitManager.translateException(e);
+        }
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        try {
+            return delegate.get(timeout, unit);
+        } catch (ExecutionException e) {
+            throw translate(e);
+        } catch (HystrixRuntimeException e) {
+            throw HystrixCircuitManager.translateException(e);
+        }
+    }
+
+    private static ExecutionException translate(ExecutionException e) {
+        if (e.getCause() instanceof HystrixRuntimeException) {
+            return new ExecutionException(HystrixCircuitManager.translateException((HystrixRuntimeException) e.getCause()));
+        }
+        return e;
+    }
+
+}
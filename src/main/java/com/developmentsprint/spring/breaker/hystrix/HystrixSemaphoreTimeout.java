@@ -0,0 +1,128 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.hystrix;
+
+import java.lang.ref.Reference;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.util.HystrixTimer;
+import com.netflix.hystrix.util.HystrixTimer.TimerListener;
+
+/**
+ * Timeout guard for a single semaphore-isolated execution.
+ * 
+ * <p>
+ * Hystrix does not enforce {@code execution.isolation.thread.timeoutInMilliseconds} for commands that run on the caller thread. This guard registers with
+ * the shared {@link HystrixTimer} instead of spawning a thread per call and marks the execution as timed out once the timeout elapses, so that it fails
+ * when it returns.
+ * 
+ * <p>
+ * The caller is only interrupted if the circuit opts in through the {@code interruptCallerOnTimeout} property (and
+ * {@code execution.isolation.thread.interruptOnTimeout} is not disabled). The caller's thread is not owned by the circuit: it may be a servlet container or
+ * pool thread, and an interrupt can close the NIO channels it is using. An interrupt raised by the timer is cleared again in {@link #complete()}, but the
+ * guarded code sees it for as long as it runs.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+final class HystrixSemaphoreTimeout implements TimerListener {
+
+    private static final int RUNNING = 0;
+
+    private static final int COMPLETED = 1;
+
+    private static final int TIMED_OUT = 2;
+
+    private final AtomicInteger state = new AtomicInteger(RUNNING);
+
+    private final Thread caller;
+
+    private final int timeoutInMilliseconds;
+
+    private final boolean interruptOnTimeout;
+
+    private volatile Reference<TimerListener> reference;
+
+    private HystrixSemaphoreTimeout(Thread caller, int timeoutInMilliseconds, boolean interruptOnTimeout) {
+        this.caller = caller;
+        this.timeoutInMilliseconds = timeoutInMilliseconds;
+        this.interruptOnTimeout = interruptOnTimeout;
+    }
+
+    /**
+     * Start guarding the current thread with the timeout configured in the given properties, interrupting it on timeout only if {@code interruptCaller} is
+     * set. Returns {@code null} if no timeout is configured.
+     */
+    static HystrixSemaphoreTimeout start(HystrixCommandProperties properties, boolean interruptCaller) {
+        int timeout = properties.executionIsolationThreadTimeoutInMilliseconds().get();
+        if (timeout <= 0) {
+            return null;
+        }
+        HystrixSemaphoreTimeout guard = new HystrixSemaphoreTimeout(Thread.currentThread(), timeout,
+                interruptCaller && properties.executionIsolationThreadInterruptOnTimeout().get());
+        guard.reference = HystrixTimer.getInstance().addTimerListener(guard);
+        return guard;
+    }
+
+    /**
+     * Time the execution out. The transition and the interrupt happen under the same monitor as in {@link #complete()}, so the caller cannot complete in
+     * between and be interrupted after it has returned.
+     */
+    @Override
+    public void tick() {
+        synchronized (this) {
+            if (state.compareAndSet(RUNNING, TIMED_OUT) && interruptOnTimeout) {
+                caller.interrupt();
+            }
+        }
+        cancelTimer();
+    }
+
+    @Override
+    public int getIntervalTimeInMilliseconds() {
+        return timeoutInMilliseconds;
+    }
+
+    int getTimeoutInMilliseconds() {
+        return timeoutInMilliseconds;
+    }
+
+    /**
+     * Mark the guarded execution as finished. Returns {@code true} if it finished within the timeout; otherwise clears the interrupt raised by the timer so
+     * it does not leak to the caller and returns {@code false}.
+     */
+    boolean complete() {
+        cancelTimer();
+        synchronized (this) {
+            if (state.compareAndSet(RUNNING, COMPLETED)) {
+                return true;
+            }
+            if (interruptOnTimeout) {
+                Thread.interrupted();
+            }
+            return false;
+        }
+    }
+
+    private void cancelTimer() {
+        Reference<TimerListener> ref = reference;
+        if (ref != null) {
+            ref.clear();
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.hystrix.fallback;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.context.ApplicationContext;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerException;
+
+/**
+ * Registry of shared {@link HystrixFallback} instances.
+ * 
+ * <p>
+ * Each fallback class is resolved and instantiated once, the first time one of its circuits actually falls back, and the instance is shared by every
+ * subsequent call. When the registry is backed by an {@link ApplicationContext}, a unique bean of the fallback type is used if one is defined; otherwise the
+ * fallback is created through the context's autowire-capable bean factory so it may have its dependencies injected.
+ * 
+ * <p>
+ * Fallback implementations are therefore expected to be thread-safe.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+public class HystrixFallbackRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(HystrixFallbackRegistry.class);
+
+    private final ConcurrentMap<Class<?>, HystrixFallback<?>> fallbacks = new ConcurrentHashMap<Class<?>, HystrixFallback<?>>();
+
+    private final ApplicationContext applicationContext;
+
+    /**
+     * Create a registry that instantiates fallbacks through their default constructor.
+     */
+    public HystrixFallbackRegistry() {
+        this(null);
+    }
+
+    /**
+     * Create a registry that obtains fallbacks from the given application context.
+     * 
+     * @param applicationContext
+     *            the context to look fallback beans up in, may be {@code null}
+     */
+    public HystrixFallbackRegistry(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * Return the shared fallback instance of the given type, creating it on first request.
+     * 
+     * @param fallbackClass
+     *            the fallback implementation
+     * @return the shared instance, never {@code null}
+     * @throws CircuitBreakerException
+     *             if the fallback cannot be instantiated
+     */
+    @SuppressWarnings("rawtypes")
+    public HystrixFallback<?> getFallback(Class<? extends HystrixFallback> fallbackClass) {
+        HystrixFallback<?> fallback = fallbacks.get(fallbackClass);
+        if (fallback == null) {
+            HystrixFallback<?> created = createFallback(fallbackClass);
+            fallback = fallbacks.putIfAbsent(fallbackClass, created);
+            if (fallback == null) {
+                fallback = created;
+            }
+        }
+        return fallback;
+    }
+
+    @SuppressWarnings("rawtypes")
+    protected HystrixFallback<?> createFallback(Class<? extends HystrixFallback> fallbackClass) {
+        try {
+            if (applicationContext != null) {
+                String[] beanNames = BeanFactoryUtils.beanNamesForTypeIncludingAncestors(applicationContext, fallbackClass);
+                if (beanNames.length == 1) {
+                    log.debug("Using bean '{}' as fallback {}", beanNames[0], fallbackClass.getName());
+                    return applicationContext.getBean(beanNames[0], fallbackClass);
+                }
+                log.debug("Creating fallback {}", fallbackClass.getName());
+                return applicationContext.getAutowireCapableBeanFactory().createBean(fallbackClass);
+            }
+            log.debug("Instantiating fallback {}", fallbackClass.getName());
+            return BeanUtils.instantiateClass(fallbackClass);
+        } catch (Exception e) {
+            throw new CircuitBreakerException(e.getMessage(), e);
+        }
+    }
+
+}
@@ -38,44 +38,67 @@ public class AopAllianceInvoker<T> implements CircuitManager.Invoker<T> {
 
     private final MethodInvocation invocation;
 
+    /**
+     * Create an invoker for the given invocation, looking up its circuit breaker attribute from the given source.
+     */
     public AopAllianceInvoker(MethodInvocation invocation, CircuitBreakerAttributeSource source) {
         this.invocation = invocation;
+        this.target = invocation.getThis();
+        this.targetClass = resolveTargetClass(target);
+        this.method = invocation.getMethod();
+        this.arguments = invocation.getArguments();
+
+        CircuitBreakerAttribute attribute = source.getCircuitBreakerAttribute(method, targetClass);
+        if (attribute != null && StringUtils.isEmpty(attribute.getName())) {
+            DefaultCircuitBreakerAttribute named = new DefaultCircuitBreakerAttribute(attribute);
+            named.setName(getDefaultName(method, targetClass));
+            attribute = named;
+        }
+        this.circuitBreakerAttribute = attribute;
+    }
+
+    /**
+     * Create an invoker for the given invocation with an already resolved circuit breaker attribute.
+     */
+    public AopAllianceInvoker(MethodInvocation invocation, Class<?> targetClass, CircuitBreakerAttribute circuitBreakerAttribute) {
+        this.invocation = invocation;
+        this.target = invocation.getThis();
+        this.targetClass = targetClass;
+        this.method = invocation.getMethod();
+        this.arguments = invocation.getArguments();
+        this.circuitBreakerAttribute = circuitBreakerAttribute;
+    }
 
-        target = invocation.getThis();
+    public CircuitBreakerAttribute getCircuitBreakerAttribute() {
+        return circuitBreakerAttribute;
+    }
 
-        // get backing class
+    /**
+     * Return the class of the object behind the given, possibly proxied, target.
+     */
+    public static Class<?> resolveTargetClass(Object target) {
         Class<?> targetClass = AopProxyUtils.ultimateTargetClass(target);
         if (targetClass == null && target != null) {
             targetClass = target.getClass();
         }
-        this.targetClass = targetClass;
-
-        method = invocation.getMethod();
-
-        arguments = invocation.getArguments();
-
-        circuitBreakerAttribute = source.getCircuitBreakerAttribute(method, targetClass);
+        return targetClass;
     }
 
-    public CircuitBreakerAttribute getCircuitBreakerAttribute() {
-        DefaultCircuitBreakerAttribute cbAttr;
-        if (circuitBreakerAttribute instanceof DefaultCircuitBreakerAttribute) {
-            cbAttr = (DefaultCircuitBreakerAttribute) circuitBreakerAttribute;
-        } else {
-            cbAttr = new DefaultCircuitBreakerAttribute(circuitBreakerAttribute);
-        }
-        if (StringUtils.isEmpty(cbAttr.getName())) {
-            StringBuilder args = new StringBuilder();
-            if (arguments != null && arguments.length > 0) {
-                for (Object arg : arguments) {
-                    args.append(arg.getClass().getName()).append(", "); 
-                }
-                args.setLength(args.length() - 2);
+    /**
+     * Return the name of a circuit breaker whose declaration does not name it: the fully-qualified name of the target class, followed by the method name and
+     * the declared parameter types.
+     */
+    public static String getDefaultName(Method method, Class<?> targetClass) {
+        StringBuilder name = new StringBuilder();
+        name.append((targetClass != null ? targetClass : method.getDeclaringClass()).getName()).append('.').append(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                name.append(", ");
             }
-            String fullSignature = targetClass.getName() + "."  + method.getName() + "(" + args + ")";
-            cbAttr.setName(fullSignature);
+            name.append(parameterTypes[i].getName());
         }
-        return cbAttr;
+        return name.append(')').toString();
     }
 
     public Method getMethod() {
@@ -94,12 +117,18 @@ public class AopAllianceInvoker<T> implements CircuitManager.Invoker<T> {
         return arguments;
     }
 
+    /**
+     * Proceed with the invocation. Unchecked exceptions of the target are rethrown as they are, so circuit managers see the business exception itself; only
+     * checked exceptions, which {@link CircuitManager.Invoker#invoke()} cannot declare, are wrapped in a {@link CircuitBreakerException}.
+     */
     @SuppressWarnings("unchecked")
     @Override
     public T invoke() {
         try {
             return (T) invocation.proceed();
-        } catch (CircuitBreakerException e) {
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Error e) {
             throw e;
         } catch (Throwable e) {
             throw new CircuitBreakerException(e);
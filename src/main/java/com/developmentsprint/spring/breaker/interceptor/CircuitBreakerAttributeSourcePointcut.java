@@ -18,6 +18,7 @@ package com.developmentsprint.spring.breaker.interceptor;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 
+import org.springframework.aop.ClassFilter;
 import org.springframework.aop.support.StaticMethodMatcherPointcut;
 import org.springframework.util.ObjectUtils;
 
@@ -25,6 +26,15 @@ abstract class CircuitBreakerAttributeSourcePointcut extends StaticMethodMatcher
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Skip classes rejected by the {@link CircuitBreakerAttributeSource} if it is a {@link ClassFilter} as well, without matching each of their methods.
+     */
+    @Override
+    public ClassFilter getClassFilter() {
+        CircuitBreakerAttributeSource tas = getCircuitBreakerAttributeSource();
+        return (tas instanceof ClassFilter ? (ClassFilter) tas : ClassFilter.TRUE);
+    }
+
     @Override
     public boolean matches(Method method, Class<?> targetClass) {
         CircuitBreakerAttributeSource tas = getCircuitBreakerAttributeSource();
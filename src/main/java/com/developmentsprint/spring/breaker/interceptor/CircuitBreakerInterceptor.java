@@ -44,7 +44,13 @@ public class CircuitBreakerInterceptor extends CircuitBreakerAspectSupport imple
     @Override
     public Object invoke(MethodInvocation invocation) throws Throwable {
 
-        CircuitManager.Invoker<?> aopAllianceInvoker = new AopAllianceInvoker<Object>(invocation, getCircuitBreakerAttributeSource());
+        Class<?> targetClass = AopAllianceInvoker.resolveTargetClass(invocation.getThis());
+        CircuitBreakerAttribute attribute = getCircuitBreakerAttribute(invocation.getMethod(), targetClass);
+        if (attribute == null) {
+            return invocation.proceed();
+        }
+
+        CircuitManager.Invoker<?> aopAllianceInvoker = new AopAllianceInvoker<Object>(invocation, targetClass, attribute);
 
         try {
             return invokeWithinCircuitBreaker(aopAllianceInvoker);
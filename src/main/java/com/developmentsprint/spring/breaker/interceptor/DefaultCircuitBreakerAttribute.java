@@ -37,6 +37,9 @@ public class DefaultCircuitBreakerAttribute extends DefaultCircuitBreakerDefinit
      */
     public DefaultCircuitBreakerAttribute(CircuitBreakerAttribute other) {
         super(other);
+        if (other instanceof DefaultCircuitBreakerAttribute) {
+            this.qualifier = ((DefaultCircuitBreakerAttribute) other).getQualifier();
+        }
     }
 
     /**
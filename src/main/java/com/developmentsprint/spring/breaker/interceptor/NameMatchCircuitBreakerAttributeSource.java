@@ -17,17 +17,27 @@ package com.developmentsprint.spring.breaker.interceptor;
 
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.PatternMatchUtils;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Simple {@link CircuitBreakerAttributeSource} implementation that allows attributes to be matched by registered name.
  * 
+ * <p>
+ * The registered names are compiled on first lookup into an exact-match map and prefix and suffix tries, and the attribute found for each method name is
+ * remembered, so that repeated lookups do not scan the registered names. Subclasses overriding {@link #isMatch} are matched by scanning all registered names
+ * instead, still remembering the result for each method name.
+ * 
  * @author Todd Orr
  * @since 1.0
  * @see #isMatch
@@ -45,6 +55,12 @@ public class NameMatchCircuitBreakerAttributeSource implements CircuitBreakerAtt
     /** Keys are method names; values are {@link CircuitBreakerAttribute}s */
     private Map<String, RuleBasedCircuitBreakerAttribute> nameMap = new HashMap<String, RuleBasedCircuitBreakerAttribute>();
 
+    /** Canonical value remembered for method names without an attribute */
+    private static final CircuitBreakerAttribute NO_ATTRIBUTE = new RuleBasedCircuitBreakerAttribute();
+
+    /** Compiled form of the name map, built on first lookup and discarded whenever a name is added */
+    private transient volatile CompiledNameMap compiledNameMap;
+
     /**
      * Set a name/attribute map, consisting of method names (e.g. "myMethod") and CircuitBreakerAttribute instances (or Strings to be converted to
      * CircuitBreakerAttribute instances).
@@ -71,22 +87,42 @@ public class NameMatchCircuitBreakerAttributeSource implements CircuitBreakerAtt
         if (log.isDebugEnabled()) {
             log.debug("Adding circuit breaker method '{}' with attribute: {}", methodName, attr);
         }
-        this.nameMap.put(methodName, attr);
+        synchronized (this.nameMap) {
+            this.nameMap.put(methodName, attr);
+            this.compiledNameMap = null;
+        }
     }
 
     @Override
     public CircuitBreakerAttribute getCircuitBreakerAttribute(Method method, Class<?> targetClass) {
+        CompiledNameMap compiled = this.compiledNameMap;
+        if (compiled == null) {
+            synchronized (this.nameMap) {
+                compiled = this.compiledNameMap;
+                if (compiled == null) {
+                    compiled = new CompiledNameMap(this.nameMap, !isMatchOverridden());
+                    this.compiledNameMap = compiled;
+                }
+            }
+        }
+        return compiled.getAttribute(method.getName());
+    }
+
+    /**
+     * Look up the attribute for the given method name by scanning all registered names with {@link #isMatch}, preferring a direct name match and otherwise
+     * the longest matching name.
+     */
+    private CircuitBreakerAttribute findAttributeByScan(Map<String, RuleBasedCircuitBreakerAttribute> names, String methodName) {
         // look for direct name match
-        String methodName = method.getName();
-        CircuitBreakerAttribute attr = this.nameMap.get(methodName);
+        CircuitBreakerAttribute attr = names.get(methodName);
 
         if (attr == null) {
             // Look for most specific name match.
             String bestNameMatch = null;
-            for (String mappedName : this.nameMap.keySet()) {
+            for (String mappedName : names.keySet()) {
                 if (isMatch(methodName, mappedName) &&
                         (bestNameMatch == null || bestNameMatch.length() <= mappedName.length())) {
-                    attr = this.nameMap.get(mappedName);
+                    attr = names.get(mappedName);
                     bestNameMatch = mappedName;
                 }
             }
@@ -95,6 +131,11 @@ public class NameMatchCircuitBreakerAttributeSource implements CircuitBreakerAtt
         return attr;
     }
 
+    private boolean isMatchOverridden() {
+        Method isMatch = ReflectionUtils.findMethod(getClass(), "isMatch", String.class, String.class);
+        return (isMatch != null && isMatch.getDeclaringClass() != NameMatchCircuitBreakerAttributeSource.class);
+    }
+
     /**
      * Return if the given method name matches the mapped name.
      * <p>
@@ -133,4 +174,120 @@ public class NameMatchCircuitBreakerAttributeSource implements CircuitBreakerAtt
         return getClass().getName() + ": " + this.nameMap;
     }
 
-}
\ No newline at end of file
+    /**
+     * Immutable, compiled form of the name map. Exact names are kept in a hash map, "xxx*" names in a trie of their prefixes and "*xxx" names in a trie of
+     * their reversed suffixes; any other pattern is matched by scanning. Attributes are remembered per method name.
+     */
+    private final class CompiledNameMap {
+
+        private final Map<String, RuleBasedCircuitBreakerAttribute> names;
+
+        private final boolean compiled;
+
+        private final Map<String, RuleBasedCircuitBreakerAttribute> exactNames = new HashMap<String, RuleBasedCircuitBreakerAttribute>();
+
+        private final NameTrie prefixes = new NameTrie();
+
+        private final NameTrie suffixes = new NameTrie();
+
+        private final List<String> otherPatterns = new ArrayList<String>();
+
+        private final ConcurrentMap<String, CircuitBreakerAttribute> attributesByMethodName = new ConcurrentHashMap<String, CircuitBreakerAttribute>();
+
+        CompiledNameMap(Map<String, RuleBasedCircuitBreakerAttribute> nameMap, boolean compiled) {
+            this.names = new HashMap<String, RuleBasedCircuitBreakerAttribute>(nameMap);
+            this.compiled = compiled;
+            if (compiled) {
+                for (String mappedName : this.names.keySet()) {
+                    int firstStar = mappedName.indexOf('*');
+                    int lastStar = mappedName.lastIndexOf('*');
+                    if (firstStar == -1) {
+                        this.exactNames.put(mappedName, this.names.get(mappedName));
+                    } else if (firstStar == lastStar && lastStar == mappedName.length() - 1) {
+                        this.prefixes.put(mappedName, mappedName.length() - 1, false);
+                    } else if (firstStar == lastStar && firstStar == 0) {
+                        this.suffixes.put(mappedName, mappedName.length() - 1, true);
+                    } else {
+                        this.otherPatterns.add(mappedName);
+                    }
+                }
+            }
+        }
+
+        CircuitBreakerAttribute getAttribute(String methodName) {
+            CircuitBreakerAttribute attr = this.attributesByMethodName.get(methodName);
+            if (attr == null) {
+                attr = (this.compiled ? match(methodName) : findAttributeByScan(this.names, methodName));
+                this.attributesByMethodName.putIfAbsent(methodName, (attr != null ? attr : NO_ATTRIBUTE));
+            } else if (attr == NO_ATTRIBUTE) {
+                attr = null;
+            }
+            return attr;
+        }
+
+        private CircuitBreakerAttribute match(String methodName) {
+            CircuitBreakerAttribute attr = this.exactNames.get(methodName);
+            if (attr != null) {
+                return attr;
+            }
+
+            String bestNameMatch = longer(this.prefixes.longestMatch(methodName, false), this.suffixes.longestMatch(methodName, true));
+            for (String pattern : this.otherPatterns) {
+                if (PatternMatchUtils.simpleMatch(pattern, methodName)) {
+                    bestNameMatch = longer(bestNameMatch, pattern);
+                }
+            }
+            return (bestNameMatch != null ? this.names.get(bestNameMatch) : null);
+        }
+
+        private String longer(String first, String second) {
+            if (first == null) {
+                return second;
+            }
+            return (second != null && second.length() > first.length() ? second : first);
+        }
+
+    }
+
+    /**
+     * Trie over the literal part of "xxx*" or (reversed) "*xxx" names, holding the mapped name at the node where its literal part ends.
+     */
+    private static final class NameTrie {
+
+        private final Map<Character, NameTrie> children = new HashMap<Character, NameTrie>(4);
+
+        private String mappedName;
+
+        void put(String mappedName, int literalLength, boolean reverse) {
+            NameTrie node = this;
+            for (int i = 0; i < literalLength; i++) {
+                char c = (reverse ? mappedName.charAt(mappedName.length() - 1 - i) : mappedName.charAt(i));
+                NameTrie child = node.children.get(c);
+                if (child == null) {
+                    child = new NameTrie();
+                    node.children.put(c, child);
+                }
+                node = child;
+            }
+            node.mappedName = mappedName;
+        }
+
+        String longestMatch(String methodName, boolean reverse) {
+            String match = this.mappedName;
+            NameTrie node = this;
+            for (int i = 0; i < methodName.length(); i++) {
+                char c = (reverse ? methodName.charAt(methodName.length() - 1 - i) : methodName.charAt(i));
+                node = node.children.get(c);
+                if (node == null) {
+                    break;
+                }
+                if (node.mappedName != null) {
+                    match = node.mappedName;
+                }
+            }
+            return match;
+        }
+
+    }
+
+}
@@ -40,6 +40,7 @@ public class RuleBasedCircuitBreakerAttribute extends DefaultCircuitBreakerAttri
      */
     public RuleBasedCircuitBreakerAttribute(RuleBasedCircuitBreakerAttribute other) {
         super(other);
+        this.methodName = other.getMethodName();
     }
 
     public void setMethodName(String methodName) {
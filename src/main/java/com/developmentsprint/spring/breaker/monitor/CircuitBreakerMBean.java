@@ -0,0 +1,82 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.monitor;
+
+/**
+ * Management interface of a single circuit breaker, as registered by the {@link CircuitBreakerMBeanRegistrar}.
+ * 
+ * <p>
+ * Attributes are read from a snapshot of the circuit that is refreshed at most once per snapshot interval, so the attributes read by one poll of a JMX
+ * client are consistent with each other. Latencies are reported in microseconds, over the recent calls of the circuit. Operations apply to the running
+ * circuit immediately, as described by {@link com.developmentsprint.spring.breaker.ControllableCircuitBreaker}.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+public interface CircuitBreakerMBean {
+
+    String getName();
+
+    boolean isOpen();
+
+    boolean isForcedOpen();
+
+    boolean isForcedClosed();
+
+    int getErrorPercentage();
+
+    int getConcurrentRequests();
+
+    /**
+     * Return the number of recent calls the latencies are computed from.
+     */
+    long getExecutionCount();
+
+    long getExecutionLatency50();
+
+    long getExecutionLatency90();
+
+    long getExecutionLatency99();
+
+    long getExecutionLatency995();
+
+    long getQueueWaitLatency99();
+
+    long getFallbackLatency99();
+
+    /**
+     * Return the number of active threads of the circuit's thread pool, or {@code -1} if it has none.
+     */
+    int getThreadPoolActiveCount();
+
+    /**
+     * Return the number of calls queued for the circuit's thread pool, or {@code -1} if it has none.
+     */
+    int getThreadPoolQueueSize();
+
+    void forceOpen();
+
+    void forceClosed();
+
+    void reset();
+
+    void updateTimeoutInMilliseconds(int timeoutInMilliseconds);
+
+    void updateMaxConcurrentRequests(int maxConcurrentRequests);
+
+    void updateProperty(String key, String value);
+
+}
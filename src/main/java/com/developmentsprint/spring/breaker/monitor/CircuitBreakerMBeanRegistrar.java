@@ -0,0 +1,126 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.monitor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jmx.export.MBeanExportException;
+import org.springframework.jmx.export.MBeanExportOperations;
+import org.springframework.util.Assert;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerException;
+import com.developmentsprint.spring.breaker.ControllableCircuitBreaker;
+
+/**
+ * Registers a {@link CircuitBreakerMBean} per circuit breaker through a Spring {@link MBeanExportOperations}, typically an
+ * {@link org.springframework.jmx.export.MBeanExporter MBeanExporter}, which also unregisters them on shutdown.
+ * 
+ * <p>
+ * Circuit managers that support it register each circuit breaker when it is created, under
+ * {@code com.developmentsprint.spring.breaker:type=CircuitBreaker,name=<name>}. A circuit breaker that is redefined replaces the MBean of its predecessor.
+ * Registration failures, e.g. because two circuit managers define circuit breakers of the same name, are logged rather than failing the call that created
+ * the circuit breaker.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+public class CircuitBreakerMBeanRegistrar implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreakerMBeanRegistrar.class);
+
+    private MBeanExportOperations mbeanExporter;
+
+    private String domain = "com.developmentsprint.spring.breaker";
+
+    private long snapshotIntervalInMilliseconds = 1000L;
+
+    private final ConcurrentMap<ObjectName, Boolean> registered = new ConcurrentHashMap<ObjectName, Boolean>();
+
+    public MBeanExportOperations getMbeanExporter() {
+        return mbeanExporter;
+    }
+
+    public void setMbeanExporter(MBeanExportOperations mbeanExporter) {
+        this.mbeanExporter = mbeanExporter;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+
+    /**
+     * Set the domain of the object names of the MBeans. Defaults to {@code com.developmentsprint.spring.breaker}.
+     */
+    public void setDomain(String domain) {
+        this.domain = domain;
+    }
+
+    public long getSnapshotIntervalInMilliseconds() {
+        return snapshotIntervalInMilliseconds;
+    }
+
+    /**
+     * Set how long the attributes of an MBean are served from the same snapshot of its circuit breaker. Defaults to one second.
+     */
+    public void setSnapshotIntervalInMilliseconds(long snapshotIntervalInMilliseconds) {
+        this.snapshotIntervalInMilliseconds = snapshotIntervalInMilliseconds;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(mbeanExporter, "Property 'mbeanExporter' is required");
+    }
+
+    /**
+     * Register the MBean of the given circuit breaker, replacing the one registered for a previous circuit breaker of the same name.
+     */
+    public void register(ControllableCircuitBreaker circuitBreaker) {
+        ObjectName objectName = getObjectName(circuitBreaker.getName());
+        try {
+            StandardMBean mbean = new StandardMBean(new CircuitBreakerMonitor(circuitBreaker, snapshotIntervalInMilliseconds), CircuitBreakerMBean.class);
+            if (registered.remove(objectName) != null) {
+                mbeanExporter.unregisterManagedResource(objectName);
+            }
+            mbeanExporter.registerManagedResource(mbean, objectName);
+            registered.put(objectName, Boolean.TRUE);
+        } catch (NotCompliantMBeanException e) {
+            throw new CircuitBreakerException(e);
+        } catch (MBeanExportException e) {
+            log.warn("Could not register MBean for circuit breaker '" + circuitBreaker.getName() + "'", e);
+        }
+    }
+
+    /**
+     * Return the object name the MBean of the named circuit breaker is registered under.
+     */
+    public ObjectName getObjectName(String circuitBreakerName) {
+        try {
+            return new ObjectName(domain + ":type=CircuitBreaker,name=" + ObjectName.quote(circuitBreakerName));
+        } catch (MalformedObjectNameException e) {
+            throw new CircuitBreakerException("Invalid MBean domain '" + domain + "'", e);
+        }
+    }
+
+}
@@ -0,0 +1,237 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.monitor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerException;
+import com.developmentsprint.spring.breaker.ControllableCircuitBreaker;
+import com.developmentsprint.spring.breaker.LatencyDistribution;
+
+/**
+ * {@link CircuitBreakerMBean} implementation serving its attributes from an immutable {@link Snapshot} of the circuit breaker.
+ * 
+ * <p>
+ * The snapshot is swapped by compare-and-set once it is older than the snapshot interval, so JMX polls neither take locks nor recompute percentiles on every
+ * attribute read. Operations discard the snapshot, so their effect shows on the next read.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+final class CircuitBreakerMonitor implements CircuitBreakerMBean {
+
+    static final String TIMEOUT_IN_MILLISECONDS = "execution.isolation.thread.timeoutInMilliseconds";
+
+    static final String MAX_CONCURRENT_REQUESTS = "execution.isolation.semaphore.maxConcurrentRequests";
+
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.5 };
+
+    private final ControllableCircuitBreaker circuitBreaker;
+
+    private final long snapshotIntervalInNanos;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<Snapshot>();
+
+    CircuitBreakerMonitor(ControllableCircuitBreaker circuitBreaker, long snapshotIntervalInMilliseconds) {
+        this.circuitBreaker = circuitBreaker;
+        this.snapshotIntervalInNanos = TimeUnit.MILLISECONDS.toNanos(snapshotIntervalInMilliseconds);
+    }
+
+    @Override
+    public String getName() {
+        return circuitBreaker.getName();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return snapshot().open;
+    }
+
+    @Override
+    public boolean isForcedOpen() {
+        return snapshot().forcedOpen;
+    }
+
+    @Override
+    public boolean isForcedClosed() {
+        return snapshot().forcedClosed;
+    }
+
+    @Override
+    public int getErrorPercentage() {
+        return snapshot().errorPercentage;
+    }
+
+    @Override
+    public int getConcurrentRequests() {
+        return snapshot().concurrentRequests;
+    }
+
+    @Override
+    public long getExecutionCount() {
+        return snapshot().executionCount;
+    }
+
+    @Override
+    public long getExecutionLatency50() {
+        return snapshot().executionLatencies[0];
+    }
+
+    @Override
+    public long getExecutionLatency90() {
+        return snapshot().executionLatencies[1];
+    }
+
+    @Override
+    public long getExecutionLatency99() {
+        return snapshot().executionLatencies[2];
+    }
+
+    @Override
+    public long getExecutionLatency995() {
+        return snapshot().executionLatencies[3];
+    }
+
+    @Override
+    public long getQueueWaitLatency99() {
+        return snapshot().queueWaitLatency99;
+    }
+
+    @Override
+    public long getFallbackLatency99() {
+        return snapshot().fallbackLatency99;
+    }
+
+    @Override
+    public int getThreadPoolActiveCount() {
+        return snapshot().threadPoolActiveCount;
+    }
+
+    @Override
+    public int getThreadPoolQueueSize() {
+        return snapshot().threadPoolQueueSize;
+    }
+
+    @Override
+    public void forceOpen() {
+        circuitBreaker.forceOpen();
+        snapshot.set(null);
+    }
+
+    @Override
+    public void forceClosed() {
+        circuitBreaker.forceClosed();
+        snapshot.set(null);
+    }
+
+    @Override
+    public void reset() {
+        circuitBreaker.reset();
+        snapshot.set(null);
+    }
+
+    @Override
+    public void updateTimeoutInMilliseconds(int timeoutInMilliseconds) {
+        updateProperty(TIMEOUT_IN_MILLISECONDS, String.valueOf(timeoutInMilliseconds));
+    }
+
+    @Override
+    public void updateMaxConcurrentRequests(int maxConcurrentRequests) {
+        updateProperty(MAX_CONCURRENT_REQUESTS, String.valueOf(maxConcurrentRequests));
+    }
+
+    /**
+     * Change a property of the circuit. Failures are reported as {@link IllegalArgumentException}, which remote JMX clients can deserialize.
+     */
+    @Override
+    public void updateProperty(String key, String value) {
+        try {
+            circuitBreaker.setProperty(key, value);
+        } catch (CircuitBreakerException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+        snapshot.set(null);
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot.get();
+        long now = System.nanoTime();
+        if (current != null && now - current.takenNanos < snapshotIntervalInNanos) {
+            return current;
+        }
+        Snapshot fresh = new Snapshot(circuitBreaker, now);
+        // a concurrent poll may have swapped in its own snapshot, either one is recent enough
+        snapshot.compareAndSet(current, fresh);
+        return fresh;
+    }
+
+    /**
+     * Immutable state of the circuit breaker at one point in time.
+     */
+    private static final class Snapshot {
+
+        final long takenNanos;
+
+        final boolean open;
+
+        final boolean forcedOpen;
+
+        final boolean forcedClosed;
+
+        final int errorPercentage;
+
+        final int concurrentRequests;
+
+        final long executionCount;
+
+        final long[] executionLatencies = new long[PERCENTILES.length];
+
+        final long queueWaitLatency99;
+
+        final long fallbackLatency99;
+
+        final int threadPoolActiveCount;
+
+        final int threadPoolQueueSize;
+
+        Snapshot(ControllableCircuitBreaker circuitBreaker, long takenNanos) {
+            this.takenNanos = takenNanos;
+            this.open = circuitBreaker.isOpen();
+            this.forcedOpen = circuitBreaker.isForcedOpen();
+            this.forcedClosed = circuitBreaker.isForcedClosed();
+            this.errorPercentage = circuitBreaker.getErrorPercentage();
+            this.concurrentRequests = circuitBreaker.getConcurrentRequests();
+            LatencyDistribution executionLatency = circuitBreaker.getExecutionLatency();
+            if (executionLatency != null) {
+                this.executionCount = executionLatency.getCount();
+                executionLatency.getValuesAtPercentiles(PERCENTILES, executionLatencies);
+            } else {
+                this.executionCount = 0;
+            }
+            this.queueWaitLatency99 = valueAt99(circuitBreaker.getQueueWaitLatency());
+            this.fallbackLatency99 = valueAt99(circuitBreaker.getFallbackLatency());
+            this.threadPoolActiveCount = circuitBreaker.getThreadPoolActiveCount();
+            this.threadPoolQueueSize = circuitBreaker.getThreadPoolQueueSize();
+        }
+
+        private static long valueAt99(LatencyDistribution histogram) {
+            return (histogram != null ? histogram.getValueAtPercentile(99) : 0);
+        }
+
+    }
+
+}
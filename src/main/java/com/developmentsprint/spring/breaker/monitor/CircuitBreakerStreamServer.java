@@ -0,0 +1,412 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.monitor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import com.developmentsprint.spring.breaker.CircuitManager;
+
+/**
+ * Embedded server that streams the {@link com.developmentsprint.spring.breaker.CircuitBreakerStatus} of every circuit breaker of a {@link CircuitManager} as
+ * server-sent events, in the style of Hystrix's {@code hystrix.stream}, without requiring a servlet container.
+ * 
+ * <p>
+ * A single daemon thread serves all connections through a NIO selector. At every {@link #setIntervalInMilliseconds interval} the statuses are serialized
+ * once into a reused buffer, and that same buffer is written to every connected client, so the number of connected dashboards adds no garbage. A client that
+ * has not consumed the previous frame by the time the next one is due is disconnected, as is any client beyond {@link #setMaxConnections maxConnections}.
+ * 
+ * <p>
+ * By default the server listens on {@code localhost:8079} under {@code /hystrix.stream}.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+public class CircuitBreakerStreamServer implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreakerStreamServer.class);
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    private static final int MAX_REQUEST_LENGTH = 8192;
+
+    private CircuitManager circuitManager;
+
+    private String host = "localhost";
+
+    private int port = 8079;
+
+    private String path = "/hystrix.stream";
+
+    private long intervalInMilliseconds = 1000L;
+
+    private int maxConnections = 100;
+
+    private final StatusFrameWriter frameWriter = new StatusFrameWriter();
+
+    private final List<Connection> streams = new ArrayList<Connection>();
+
+    private final ByteBuffer discard = ByteBuffer.allocate(256);
+
+    private ByteBuffer streamHeader;
+
+    private ByteBuffer notFoundResponse;
+
+    private Selector selector;
+
+    private ServerSocketChannel serverChannel;
+
+    private Thread thread;
+
+    private volatile boolean running;
+
+    public CircuitManager getCircuitManager() {
+        return circuitManager;
+    }
+
+    /**
+     * Set the circuit manager whose {@link CircuitManager#getConfiguredCircuitBreakers() circuit breakers} are streamed.
+     */
+    public void setCircuitManager(CircuitManager circuitManager) {
+        this.circuitManager = circuitManager;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Set the address to listen on. Default is {@code localhost}, so the stream is not reachable from other hosts.
+     */
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    /**
+     * Return the port the server listens on; once started, the actual port if it was configured as {@code 0}.
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Set the port to listen on. Default is {@code 8079}; {@code 0} picks a free port.
+     */
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Set the request path of the stream. Default is {@code /hystrix.stream}.
+     */
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public long getIntervalInMilliseconds() {
+        return intervalInMilliseconds;
+    }
+
+    /**
+     * Set the time between two frames of statuses. Default is one second.
+     */
+    public void setIntervalInMilliseconds(long intervalInMilliseconds) {
+        this.intervalInMilliseconds = intervalInMilliseconds;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Set the maximum number of concurrently streaming clients. Default is 100.
+     */
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        Assert.notNull(circuitManager, "Property 'circuitManager' is required");
+        Assert.isTrue(intervalInMilliseconds > 0, "Property 'intervalInMilliseconds' must be positive");
+
+        streamHeader = encode("HTTP/1.1 200 OK\r\nContent-Type: text/event-stream;charset=UTF-8\r\n"
+                + "Cache-Control: no-cache, no-store, max-age=0, must-revalidate\r\nPragma: no-cache\r\nConnection: close\r\n\r\n");
+        notFoundResponse = encode("HTTP/1.1 404 Not Found\r\nContent-Length: 0\r\nConnection: close\r\n\r\n");
+
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.socket().setReuseAddress(true);
+        serverChannel.socket().bind(new InetSocketAddress(host, port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        port = serverChannel.socket().getLocalPort();
+
+        running = true;
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                serve();
+            }
+        }, "spring-breaker-stream-" + port);
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Streaming circuit breaker metrics on http://{}:{}{}", new Object[] { host, port, path });
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (thread != null) {
+            thread.join(intervalInMilliseconds + 1000L);
+        }
+    }
+
+    private void serve() {
+        long nextFrame = System.currentTimeMillis();
+        try {
+            while (running) {
+                long now = System.currentTimeMillis();
+                if (now >= nextFrame) {
+                    if (!streams.isEmpty()) {
+                        sendFrame(now);
+                    }
+                    nextFrame = now + intervalInMilliseconds;
+                }
+                selector.select(Math.max(1L, nextFrame - now));
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Connection connection = (Connection) key.attachment();
+                            if (key.isReadable()) {
+                                connection.read();
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                connection.flush();
+                            }
+                        }
+                    } catch (IOException e) {
+                        log.debug("Closing circuit breaker stream connection: {}", e.toString());
+                        close(key);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("Circuit breaker stream server failed", e);
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(key, channel));
+    }
+
+    private void sendFrame(long now) {
+        // the frame is about to be overwritten, so clients still writing the previous one are too slow
+        for (int i = streams.size() - 1; i >= 0; i--) {
+            Connection connection = streams.get(i);
+            if (connection.pending == frameWriter.getFrame()) {
+                log.debug("Disconnecting circuit breaker stream client that cannot keep up");
+                close(connection.key);
+            }
+        }
+
+        frameWriter.writeFrame(circuitManager.getConfiguredCircuitBreakers(), now);
+        for (int i = streams.size() - 1; i >= 0; i--) {
+            Connection connection = streams.get(i);
+            if (connection.pending == null) {
+                try {
+                    connection.send(frameWriter.getFrame(), frameWriter.getLength());
+                } catch (IOException e) {
+                    log.debug("Closing circuit breaker stream connection: {}", e.toString());
+                    close(connection.key);
+                }
+            }
+        }
+    }
+
+    private void close(SelectionKey key) {
+        Object attachment = key.attachment();
+        if (attachment instanceof Connection) {
+            streams.remove(attachment);
+        }
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    private void shutdown() {
+        if (selector != null) {
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+        streams.clear();
+    }
+
+    private static ByteBuffer encode(String text) {
+        return ByteBuffer.wrap(text.getBytes(ASCII));
+    }
+
+    /**
+     * A client connection: reads the request, then receives frames. Frames are written from shared buffers; the connection only tracks which buffer it is
+     * writing and how far it got.
+     */
+    private final class Connection {
+
+        private final SelectionKey key;
+
+        private final SocketChannel channel;
+
+        private ByteBuffer request = ByteBuffer.allocate(1024);
+
+        private ByteBuffer pending;
+
+        private int position;
+
+        private int limit;
+
+        private boolean closeWhenFlushed;
+
+        Connection(SelectionKey key, SocketChannel channel) {
+            this.key = key;
+            this.channel = channel;
+        }
+
+        void read() throws IOException {
+            if (request == null) {
+                // streaming: anything the client sends is ignored, reading only detects disconnects
+                discard.clear();
+                if (channel.read(discard) < 0) {
+                    close(key);
+                }
+                return;
+            }
+            if (!request.hasRemaining()) {
+                if (request.capacity() >= MAX_REQUEST_LENGTH) {
+                    throw new IOException("Request too large");
+                }
+                ByteBuffer grown = ByteBuffer.allocate(request.capacity() * 2);
+                request.flip();
+                grown.put(request);
+                request = grown;
+            }
+            if (channel.read(request) < 0) {
+                close(key);
+                return;
+            }
+            String received = new String(request.array(), 0, request.position(), ASCII);
+            if (received.contains("\r\n\r\n") || received.contains("\n\n")) {
+                request = null;
+                if (isStreamRequest(received)) {
+                    if (streams.size() >= maxConnections) {
+                        log.debug("Rejecting circuit breaker stream client, {} clients are connected", streams.size());
+                        close(key);
+                        return;
+                    }
+                    streams.add(this);
+                    send(streamHeader, streamHeader.capacity());
+                } else {
+                    closeWhenFlushed = true;
+                    send(notFoundResponse, notFoundResponse.capacity());
+                }
+            }
+        }
+
+        private boolean isStreamRequest(String received) {
+            String prefix = "GET " + path;
+            if (!received.startsWith(prefix) || received.length() == prefix.length()) {
+                return false;
+            }
+            char next = received.charAt(prefix.length());
+            return (next == ' ' || next == '?');
+        }
+
+        void send(ByteBuffer source, int length) throws IOException {
+            pending = source;
+            position = 0;
+            limit = length;
+            flush();
+        }
+
+        void flush() throws IOException {
+            if (pending == null) {
+                key.interestOps(SelectionKey.OP_READ);
+                return;
+            }
+            // shared buffers are only touched by the selector thread
+            pending.limit(limit).position(position);
+            channel.write(pending);
+            position = pending.position();
+            if (position < limit) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+            pending = null;
+            key.interestOps(SelectionKey.OP_READ);
+            if (closeWhenFlushed) {
+                close(key);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.monitor;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerDefinition;
+import com.developmentsprint.spring.breaker.CircuitBreakerStatus;
+import com.developmentsprint.spring.breaker.LatencyDistribution;
+
+/**
+ * Serializes {@link CircuitBreakerStatus} snapshots into server-sent events, one {@code data:} event of JSON per circuit breaker, in the format of Hystrix's
+ * metrics stream where the fields are shared.
+ * 
+ * <p>
+ * The frame is written into a byte array that is reused from frame to frame and only grows, and numbers are written digit by digit, so serializing a frame
+ * allocates nothing once the array has reached its working size. Not thread-safe.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+final class StatusFrameWriter {
+
+    private static final double[] PERCENTILES = { 0, 25, 50, 75, 90, 95, 99, 99.5, 100 };
+
+    private static final String[] PERCENTILE_KEYS = { "0", "25", "50", "75", "90", "95", "99", "99.5", "100" };
+
+    private static final String PING = "ping: \n\n";
+
+    private final long[] values = new long[PERCENTILES.length];
+
+    private byte[] bytes = new byte[4096];
+
+    private int length;
+
+    private ByteBuffer view = ByteBuffer.wrap(bytes);
+
+    /**
+     * Serialize the statuses among the given definitions into a new frame, replacing the previous one. A frame without statuses is a ping comment that keeps
+     * idle connections alive.
+     */
+    void writeFrame(List<CircuitBreakerDefinition> definitions, long currentTime) {
+        length = 0;
+        boolean empty = true;
+        if (definitions != null) {
+            for (CircuitBreakerDefinition definition : definitions) {
+                if (definition instanceof CircuitBreakerStatus) {
+                    writeStatus((CircuitBreakerStatus) definition, currentTime);
+                    empty = false;
+                }
+            }
+        }
+        if (empty) {
+            ascii(PING);
+        }
+    }
+
+    /**
+     * Return the current frame. The returned buffer is shared and only valid until the next frame is written; callers set its position and limit.
+     */
+    ByteBuffer getFrame() {
+        return view;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    private void writeStatus(CircuitBreakerStatus status, long currentTime) {
+        ascii("data: {\"type\":\"HystrixCommand\",\"name\":");
+        string(status.getName());
+        ascii(",\"group\":");
+        string(status.getName());
+        ascii(",\"currentTime\":");
+        number(currentTime);
+        ascii(",\"isCircuitBreakerOpen\":");
+        ascii(status.isOpen() ? "true" : "false");
+        ascii(",\"errorPercentage\":");
+        number(status.getErrorPercentage());
+        ascii(",\"currentConcurrentExecutionCount\":");
+        number(status.getConcurrentRequests());
+        ascii(",\"latencyExecute\":");
+        percentiles(status.getExecutionLatency());
+        ascii(",\"latencyQueueWait\":");
+        percentiles(status.getQueueWaitLatency());
+        ascii(",\"latencyFallback\":");
+        percentiles(status.getFallbackLatency());
+        ascii("}\n\n");
+    }
+
+    /**
+     * Write the percentiles of the given histogram in milliseconds, as Hystrix does.
+     */
+    private void percentiles(LatencyDistribution histogram) {
+        if (histogram != null) {
+            histogram.getValuesAtPercentiles(PERCENTILES, values);
+        } else {
+            Arrays.fill(values, 0);
+        }
+        ensureCapacity(PERCENTILES.length * 32);
+        bytes[length++] = '{';
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            if (i > 0) {
+                bytes[length++] = ',';
+            }
+            bytes[length++] = '"';
+            ascii(PERCENTILE_KEYS[i]);
+            bytes[length++] = '"';
+            bytes[length++] = ':';
+            number(values[i] / 1000);
+        }
+        bytes[length++] = '}';
+    }
+
+    private void string(String value) {
+        ensureCapacity(value.length() * 6 + 2);
+        bytes[length++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                bytes[length++] = '\\';
+                bytes[length++] = (byte) c;
+            } else if (c < 0x20 || c > 0x7e) {
+                bytes[length++] = '\\';
+                bytes[length++] = 'u';
+                hex(c >> 12);
+                hex(c >> 8);
+                hex(c >> 4);
+                hex(c);
+            } else {
+                bytes[length++] = (byte) c;
+            }
+        }
+        bytes[length++] = '"';
+    }
+
+    private void hex(int digit) {
+        bytes[length++] = (byte) "0123456789abcdef".charAt(digit & 0xf);
+    }
+
+    private void ascii(String value) {
+        ensureCapacity(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            bytes[length++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void number(long value) {
+        ensureCapacity(20);
+        if (value < 0) {
+            bytes[length++] = '-';
+            value = -value;
+        }
+        int start = length;
+        do {
+            bytes[length++] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value > 0);
+        // digits were written least significant first
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte digit = bytes[i];
+            bytes[i] = bytes[j];
+            bytes[j] = digit;
+        }
+    }
+
+    private void ensureCapacity(int additional) {
+        if (length + additional > bytes.length) {
+            byte[] grown = new byte[Math.max(bytes.length * 2, length + additional)];
+            System.arraycopy(bytes, 0, grown, 0, length);
+            bytes = grown;
+            view = ByteBuffer.wrap(bytes);
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.support;
+
+import java.util.Map;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerDefinition;
+import com.developmentsprint.spring.breaker.CircuitBreakerStatus;
+
+/**
+ * Base class for {@link CircuitBreakerStatus} implementations, delegating the definition part to the {@link CircuitBreakerDefinition} the circuit breaker was
+ * created from, and keeping the {@link LatencyHistogram latency histograms} circuit managers record into. The latency accessors return the histograms
+ * themselves, so that circuit managers can record into them.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+public abstract class AbstractCircuitBreakerStatus implements CircuitBreakerStatus {
+
+    private final CircuitBreakerDefinition definition;
+
+    private final LatencyHistogram executionLatency = new LatencyHistogram();
+
+    private final LatencyHistogram queueWaitLatency = new LatencyHistogram();
+
+    private final LatencyHistogram fallbackLatency = new LatencyHistogram();
+
+    protected AbstractCircuitBreakerStatus(CircuitBreakerDefinition definition) {
+        this.definition = definition;
+    }
+
+    @Override
+    public String getName() {
+        return definition.getName();
+    }
+
+    @Override
+    public Map<String, String> getProperties() {
+        return definition.getProperties();
+    }
+
+    @Override
+    public String getCircuitManager() {
+        return definition.getCircuitManager();
+    }
+
+    /**
+     * Return {@code -1}: circuits do not run on a thread pool of their own unless overridden.
+     */
+    @Override
+    public int getThreadPoolActiveCount() {
+        return -1;
+    }
+
+    /**
+     * Return {@code -1}: circuits do not run on a thread pool of their own unless overridden.
+     */
+    @Override
+    public int getThreadPoolQueueSize() {
+        return -1;
+    }
+
+    /**
+     * Return {@code -1}: calls are not counted unless overridden.
+     */
+    @Override
+    public long getExecutionCount() {
+        return -1;
+    }
+
+    /**
+     * Return {@code -1}: calls are not counted unless overridden.
+     */
+    @Override
+    public long getFailureCount() {
+        return -1;
+    }
+
+    /**
+     * Return {@code -1}: calls are not counted unless overridden.
+     */
+    @Override
+    public long getTotalExecutionTimeInMicroseconds() {
+        return -1;
+    }
+
+    @Override
+    public int getLatencyPercentile(double percentile) {
+        return (int) (executionLatency.getValueAtPercentile(percentile) / 1000);
+    }
+
+    @Override
+    public LatencyHistogram getExecutionLatency() {
+        return executionLatency;
+    }
+
+    @Override
+    public LatencyHistogram getQueueWaitLatency() {
+        return queueWaitLatency;
+    }
+
+    @Override
+    public LatencyHistogram getFallbackLatency() {
+        return fallbackLatency;
+    }
+
+    @Override
+    public String toString() {
+        return getName() + ": open=" + isOpen() + ", errorPercentage=" + getErrorPercentage() + ", concurrentRequests=" + getConcurrentRequests()
+                + ", latency50=" + getLatencyPercentile(50) + "ms, latency99=" + getLatencyPercentile(99) + "ms";
+    }
+
+}
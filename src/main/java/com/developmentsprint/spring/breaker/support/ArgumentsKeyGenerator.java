@@ -0,0 +1,71 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.support;
+
+import java.lang.reflect.Method;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * {@link KeyGenerator} that derives a {@link String} key from the target, the method and the method arguments, for caches that require string keys (such
+ * as Hystrix's request cache).
+ * 
+ * <p>
+ * The key identifies the target instance and the method, so that methods sharing a circuit (and thus a cache) do not share cached results. Arguments are
+ * represented by their {@code toString()} value (arrays are expanded element by element), so they are expected to have a {@code toString()} that identifies
+ * their value. Arguments that do not should be handled by a custom {@link KeyGenerator}. Every part of the key is prefixed with its length, and
+ * {@code null} is encoded apart from any string, so that different argument lists never produce the same key.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+public class ArgumentsKeyGenerator implements KeyGenerator {
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        StringBuilder key = new StringBuilder();
+        appendValue(key, (target != null ? ObjectUtils.getIdentityHexString(target) : null));
+        appendValue(key, (method != null ? method.toString() : null));
+        appendArray(key, params);
+        return key.toString();
+    }
+
+    private static void appendArgument(StringBuilder key, Object argument) {
+        if (argument != null && argument.getClass().isArray()) {
+            appendArray(key, ObjectUtils.toObjectArray(argument));
+        } else {
+            appendValue(key, (argument != null ? argument.toString() : null));
+        }
+    }
+
+    private static void appendArray(StringBuilder key, Object[] elements) {
+        key.append('[').append(elements.length).append(':');
+        for (Object element : elements) {
+            appendArgument(key, element);
+        }
+        key.append(']');
+    }
+
+    private static void appendValue(StringBuilder key, String value) {
+        if (value == null) {
+            key.append('-');
+        } else {
+            key.append(value.length()).append(':').append(value);
+        }
+    }
+
+}
@@ -15,19 +15,65 @@
  */
 package com.developmentsprint.spring.breaker.support;
 
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.EmbeddedValueResolverAware;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
 import org.springframework.util.StringValueResolver;
 
+import com.developmentsprint.spring.breaker.AsynchronousCircuitManager;
 import com.developmentsprint.spring.breaker.CircuitManager;
+import com.developmentsprint.spring.breaker.PreparableCircuitManager;
+import com.developmentsprint.spring.breaker.interceptor.AopAllianceInvoker;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttribute;
 import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttributeSource;
+import com.developmentsprint.spring.breaker.interceptor.DefaultCircuitBreakerAttribute;
+import com.developmentsprint.spring.breaker.interceptor.RuleBasedCircuitBreakerAttribute;
 
-public abstract class CircuitBreakerAspectSupport implements InitializingBean, ApplicationContextAware, EmbeddedValueResolverAware {
+public abstract class CircuitBreakerAspectSupport implements InitializingBean, ApplicationContextAware, EmbeddedValueResolverAware,
+        ApplicationListener<ContextRefreshedEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreakerAspectSupport.class);
+
+    /**
+     * Circuit property that has the circuit cover the completion of the futures returned by its methods, not only their invocation.
+     */
+    public static final String AWAIT_FUTURE_PROPERTY = "awaitFuture";
+
+    private static final boolean rxPresent = ClassUtils.isPresent("rx.Observable", CircuitBreakerAspectSupport.class.getClassLoader());
+
+    /**
+     * Canonical value held in the attribute cache to indicate that no circuit breaker attribute was found for a method.
+     */
+    private static final CircuitBreakerAttribute NULL_CIRCUIT_BREAKER_ATTRIBUTE = new DefaultCircuitBreakerAttribute();
+
+    /**
+     * Resolved circuit breaker attributes, keyed by method and then by target class. A {@code null} target class is held under the method's declaring class.
+     */
+    private final ConcurrentMap<Method, ConcurrentMap<Class<?>, CircuitBreakerAttribute>> attributeCache =
+            new ConcurrentHashMap<Method, ConcurrentMap<Class<?>, CircuitBreakerAttribute>>(256);
 
     private CircuitManager circuitManager;
 
@@ -39,6 +85,8 @@ public abstract class CircuitBreakerAspectSupport implements InitializingBean, A
 
     private StringValueResolver valueResolver;
 
+    private boolean warmUp = false;
+
     public CircuitManager getCircuitManager() {
         return circuitManager;
     }
@@ -47,6 +95,21 @@ public abstract class CircuitBreakerAspectSupport implements InitializingBean, A
         this.circuitManager = circuitManager;
     }
 
+    /**
+     * Set whether the circuit breaker methods of the application context's beans are warmed up once the context is refreshed: their attributes are resolved
+     * and, if the circuit manager is a {@link PreparableCircuitManager}, their circuits are prepared, instead of on each method's first invocation. Default is
+     * {@code false}.
+     * 
+     * @see #warmUp()
+     */
+    public void setWarmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         this.applicationContext = applicationContext;
@@ -62,6 +125,89 @@ public abstract class CircuitBreakerAspectSupport implements InitializingBean, A
         initialized = true;
     }
 
+    /**
+     * Discard the resolved circuit breaker attributes when the owning application context is refreshed, so that placeholders are resolved against its
+     * current {@link org.springframework.core.env.Environment}.
+     */
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (event.getApplicationContext() == this.applicationContext) {
+            refreshCircuitBreakerAttributes();
+            if (this.warmUp && this.initialized) {
+                warmUp();
+            }
+        }
+    }
+
+    /**
+     * Resolve the circuit breaker attributes of all methods of the singleton beans that {@link #isWarmUpCandidate are advised} by this aspect, and prepare
+     * their circuits if the circuit manager is a {@link PreparableCircuitManager}. Called once the application context is refreshed if
+     * {@link #setWarmUp warmUp} is set. Beans that have not been created yet are not created.
+     */
+    public void warmUp() {
+        if (!(this.applicationContext instanceof ConfigurableApplicationContext)) {
+            return;
+        }
+        ConfigurableListableBeanFactory beanFactory = ((ConfigurableApplicationContext) this.applicationContext).getBeanFactory();
+
+        int circuitBreakerMethods = 0;
+        for (String beanName : beanFactory.getSingletonNames()) {
+            Object bean = beanFactory.getSingleton(beanName);
+            if (bean == null || !isWarmUpCandidate(bean)) {
+                continue;
+            }
+
+            Class<?> targetClass = AopAllianceInvoker.resolveTargetClass(bean);
+            Set<Method> methods = new LinkedHashSet<Method>(Arrays.asList(ReflectionUtils.getUniqueDeclaredMethods(targetClass)));
+            if (bean instanceof Advised) {
+                // invocations through a JDK proxy carry the interface method
+                for (Class<?> proxiedInterface : ((Advised) bean).getProxiedInterfaces()) {
+                    methods.addAll(Arrays.asList(proxiedInterface.getMethods()));
+                }
+            }
+
+            for (Method method : methods) {
+                CircuitBreakerAttribute attribute = getCircuitBreakerAttribute(method, targetClass);
+                if (attribute == null) {
+                    continue;
+                }
+                circuitBreakerMethods++;
+                if (getCircuitManager() instanceof PreparableCircuitManager) {
+                    ((PreparableCircuitManager) getCircuitManager()).prepare(new WarmUpInvoker(attribute, bean, targetClass, method));
+                }
+            }
+        }
+
+        log.info("Warmed up {} circuit breaker methods", circuitBreakerMethods);
+    }
+
+    /**
+     * Return whether the methods of the given bean are warmed up. The default implementation accepts beans proxied with this aspect as advice.
+     */
+    protected boolean isWarmUpCandidate(Object bean) {
+        if (!(bean instanceof Advised)) {
+            return false;
+        }
+        for (Advisor advisor : ((Advised) bean).getAdvisors()) {
+            if (advisor.getAdvice() == this) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Discard all resolved circuit breaker attributes. Each method resolves its attribute again, placeholders included, on its next invocation. Call this
+     * after changing property sources of the {@link org.springframework.core.env.Environment} that circuit properties refer to.
+     * <p>
+     * Whether existing circuits pick up changed properties depends on the circuit manager: the
+     * {@link com.developmentsprint.spring.breaker.hystrix.HystrixCircuitManager} reconfigures a circuit when the method it was configured from presents a
+     * changed attribute, while other circuit managers keep the configuration their circuits were created with.
+     */
+    public void refreshCircuitBreakerAttributes() {
+        this.attributeCache.clear();
+    }
+
     public void setCircuitBreakerAttributeSource(CircuitBreakerAttributeSource circuitBreakerAttributeSource) {
         this.circuitBreakerAttributeSource = circuitBreakerAttributeSource;
     }
@@ -77,13 +223,95 @@ public abstract class CircuitBreakerAspectSupport implements InitializingBean, A
         return applicationContext;
     }
 
+    /**
+     * Return the resolved circuit breaker attribute for the given method, or {@code null} if the method is not a circuit breaker method. The attribute is
+     * looked up from the {@link CircuitBreakerAttributeSource} and resolved only on the first call for each method and target class; later calls are served
+     * from a cache without allocating.
+     * 
+     * @param method
+     *            the method being invoked
+     * @param targetClass
+     *            the target class, may be {@code null}
+     * @see #resolveCircuitBreakerAttribute
+     */
+    protected CircuitBreakerAttribute getCircuitBreakerAttribute(Method method, Class<?> targetClass) {
+        ConcurrentMap<Class<?>, CircuitBreakerAttribute> attributesByClass = this.attributeCache.get(method);
+        if (attributesByClass == null) {
+            attributesByClass = new ConcurrentHashMap<Class<?>, CircuitBreakerAttribute>(4);
+            ConcurrentMap<Class<?>, CircuitBreakerAttribute> existing = this.attributeCache.putIfAbsent(method, attributesByClass);
+            if (existing != null) {
+                attributesByClass = existing;
+            }
+        }
+
+        Class<?> classKey = (targetClass != null ? targetClass : method.getDeclaringClass());
+        CircuitBreakerAttribute attribute = attributesByClass.get(classKey);
+        if (attribute == null) {
+            CircuitBreakerAttribute sourceAttribute = getCircuitBreakerAttributeSource().getCircuitBreakerAttribute(method, targetClass);
+            attribute = (sourceAttribute != null ? resolveCircuitBreakerAttribute(sourceAttribute, method, targetClass) : NULL_CIRCUIT_BREAKER_ATTRIBUTE);
+            CircuitBreakerAttribute existing = attributesByClass.putIfAbsent(classKey, attribute);
+            if (existing != null) {
+                attribute = existing;
+            }
+        }
+        return (attribute != NULL_CIRCUIT_BREAKER_ATTRIBUTE ? attribute : null);
+    }
+
+    /**
+     * Resolve the attribute found by the {@link CircuitBreakerAttributeSource} into the attribute used for every invocation of the given method. The default
+     * implementation resolves placeholders in the property values through the embedded value resolver and names the circuit breaker after the method if the
+     * declaration does not name it, working on a copy so that the source's attribute is left untouched.
+     * <p>
+     * Resolution happens once per method and target class; call {@link #refreshCircuitBreakerAttributes()} to resolve again after the values behind the
+     * placeholders changed.
+     * 
+     * @see AopAllianceInvoker#getDefaultName
+     */
+    protected CircuitBreakerAttribute resolveCircuitBreakerAttribute(CircuitBreakerAttribute attribute, Method method, Class<?> targetClass) {
+        boolean resolveProperties = (this.valueResolver != null && attribute.getProperties() != null && !attribute.getProperties().isEmpty());
+        boolean resolveName = !StringUtils.hasText(attribute.getName());
+        if (!resolveProperties && !resolveName) {
+            return attribute;
+        }
+
+        DefaultCircuitBreakerAttribute resolved = copyOf(attribute);
+        if (resolveProperties) {
+            Map<String, String> properties = new HashMap<String, String>(attribute.getProperties().size());
+            for (Map.Entry<String, String> e : attribute.getProperties().entrySet()) {
+                properties.put(e.getKey(), this.valueResolver.resolveStringValue(e.getValue()));
+            }
+            resolved.setProperties(properties);
+        }
+        if (resolveName) {
+            resolved.setName(AopAllianceInvoker.getDefaultName(method, targetClass));
+        }
+        return resolved;
+    }
+
+    /**
+     * Copy the given attribute, keeping its rule-based type if it has one.
+     */
+    protected static DefaultCircuitBreakerAttribute copyOf(CircuitBreakerAttribute attribute) {
+        if (attribute instanceof RuleBasedCircuitBreakerAttribute) {
+            return new RuleBasedCircuitBreakerAttribute((RuleBasedCircuitBreakerAttribute) attribute);
+        }
+        return new DefaultCircuitBreakerAttribute(attribute);
+    }
+
+    /**
+     * Invoke the given invoker within the circuit breaker of the circuit manager. Methods declared to return a {@link Future} are executed and their future
+     * returned as is, so the circuit covers starting the asynchronous work but not its outcome. Circuits that set the {@value #AWAIT_FUTURE_PROPERTY}
+     * property to {@code true} cover the outcome as well: if the circuit manager is an {@link AsynchronousCircuitManager} that queues the method on another
+     * thread, that thread waits for the method's future and the caller gets a future completed by the circuit. The waiting thread is held until the method's
+     * future completes, as {@link Future} offers no completion callback. Methods returning an RxJava {@code Observable} are executed lazily on subscription
+     * if the circuit manager is a {@link com.developmentsprint.spring.breaker.ReactiveCircuitManager}, without holding a thread while the observable emits.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
     protected <T> T invokeWithinCircuitBreaker(CircuitManager.Invoker<T> invoker) {
 
-        // ensure that properties were replaced
-        Map<String,String> properties = invoker.getCircuitBreakerAttribute().getProperties();
-        for (Map.Entry<String, String> e : properties.entrySet()) {
-            String value = valueResolver.resolveStringValue(e.getValue());
-            properties.put(e.getKey(), value);
+        // not a circuit breaker method
+        if (invoker.getCircuitBreakerAttribute() == null) {
+            return invoker.invoke();
         }
 
         // check whether aspect is enabled
@@ -92,7 +320,73 @@ public abstract class CircuitBreakerAspectSupport implements InitializingBean, A
             return invoker.invoke();
         }
 
+        if (Future.class.equals(invoker.getMethod().getReturnType()) && isAwaitFuture(invoker.getCircuitBreakerAttribute())
+                && getCircuitManager() instanceof AsynchronousCircuitManager && ((AsynchronousCircuitManager) getCircuitManager()).isAsynchronous(invoker)) {
+            return (T) getCircuitManager().queue(new FutureResultInvoker((CircuitManager.Invoker<Future<?>>) invoker));
+        }
+
+        if (rxPresent && ObservableInvocations.isObservable(getCircuitManager(), invoker)) {
+            return (T) ObservableInvocations.toObservable(getCircuitManager(), (CircuitManager.Invoker) invoker);
+        }
+
         return getCircuitManager().execute(invoker);
     }
 
+    private static boolean isAwaitFuture(CircuitBreakerAttribute attribute) {
+        String awaitFuture = attribute.getProperties().get(AWAIT_FUTURE_PROPERTY);
+        return (awaitFuture != null && Boolean.parseBoolean(awaitFuture.trim()));
+    }
+
+    /**
+     * Describes a circuit breaker method to {@link PreparableCircuitManager#prepare} during warm-up. Never invoked.
+     */
+    private static class WarmUpInvoker implements CircuitManager.Invoker<Object> {
+
+        private final CircuitBreakerAttribute circuitBreakerAttribute;
+
+        private final Object target;
+
+        private final Class<?> targetClass;
+
+        private final Method method;
+
+        WarmUpInvoker(CircuitBreakerAttribute circuitBreakerAttribute, Object target, Class<?> targetClass, Method method) {
+            this.circuitBreakerAttribute = circuitBreakerAttribute;
+            this.target = target;
+            this.targetClass = targetClass;
+            this.method = method;
+        }
+
+        @Override
+        public CircuitBreakerAttribute getCircuitBreakerAttribute() {
+            return circuitBreakerAttribute;
+        }
+
+        @Override
+        public Object invoke() {
+            throw new IllegalStateException("Circuit breaker warm-up must not invoke " + method);
+        }
+
+        @Override
+        public Object getTarget() {
+            return target;
+        }
+
+        @Override
+        public Class<?> getTargetClass() {
+            return targetClass;
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return new Object[method.getParameterTypes().length];
+        }
+
+    }
+
 }
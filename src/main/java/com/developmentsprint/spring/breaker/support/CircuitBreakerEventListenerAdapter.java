@@ -0,0 +1,49 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.support;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerDefinition;
+import com.developmentsprint.spring.breaker.CircuitBreakerEventListener;
+
+/**
+ * Adapter that implements all methods of {@link CircuitBreakerEventListener} as no-ops, so listeners only override the events they are interested in.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+public abstract class CircuitBreakerEventListenerAdapter implements CircuitBreakerEventListener {
+
+    @Override
+    public void onExecution(CircuitBreakerDefinition circuitBreaker, Outcome outcome, String isolation, long queueWaitNanos, long executionNanos) {
+    }
+
+    @Override
+    public void onShortCircuit(CircuitBreakerDefinition circuitBreaker) {
+    }
+
+    @Override
+    public void onRejection(CircuitBreakerDefinition circuitBreaker) {
+    }
+
+    @Override
+    public void onTimeout(CircuitBreakerDefinition circuitBreaker) {
+    }
+
+    @Override
+    public void onStateTransition(CircuitBreakerDefinition circuitBreaker, boolean open) {
+    }
+
+}
@@ -18,17 +18,27 @@ package com.developmentsprint.spring.breaker.support;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Future;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
 
+import com.developmentsprint.spring.breaker.AsynchronousCircuitManager;
 import com.developmentsprint.spring.breaker.CircuitBreakerDefinition;
+import com.developmentsprint.spring.breaker.CircuitBreakerException;
 import com.developmentsprint.spring.breaker.CircuitManager;
+import com.developmentsprint.spring.breaker.InspectableCircuitManager;
+import com.developmentsprint.spring.breaker.PreparableCircuitManager;
 
 /**
  * Composite {@link CircuitManager} implementation that iterates over a given collection of delegate {@link CircuitManager} instances.
@@ -43,18 +53,37 @@ import com.developmentsprint.spring.breaker.CircuitManager;
  * creation of named circuit manager once requested; check out the specific configuration details for a 'static' mode with fixed circuit manager names, if
  * available.
  * 
+ * <p>
+ * Delegates are routed to by bean name: the {@code circuitManager} declared on a circuit breaker is looked up in a routing table holding every bean of a
+ * delegate's type, keyed by bean name. The table is built once the application context has been refreshed (or on first use, if that happens earlier) and is
+ * rebuilt on every subsequent refresh, so routing an invocation is a single map lookup.
+ * 
+ * <p>
+ * Circuits are {@link #prepare prepared} by the delegate an invocation is routed to, and configuration is looked up from the delegates of the routing table.
+ * Invocations of methods returning an RxJava {@code Observable} are passed to the routed delegate if it is a
+ * {@link com.developmentsprint.spring.breaker.ReactiveCircuitManager}; this manager does not implement that interface itself, so that it does not require
+ * RxJava.
+ * 
  * @author Todd Orr
  * @since 1.0
  * @see #setFallbackToNoOpCircuitManager
  */
-public class CompositeCircuitManager implements CircuitManager, InitializingBean, ApplicationContextAware {
+public class CompositeCircuitManager implements AsynchronousCircuitManager, PreparableCircuitManager, InspectableCircuitManager, InitializingBean,
+        ApplicationContextAware, ApplicationListener<ContextRefreshedEvent> {
 
     private final List<CircuitManager> circuitManagers = new ArrayList<CircuitManager>();
 
+    private final NoOpCircuitManager noOpCircuitManager = new NoOpCircuitManager();
+
     private boolean fallbackToNoOpCircuitManager = false;
 
     private ApplicationContext applicationContext;
 
+    /**
+     * Immutable routing table from circuit manager bean name to circuit manager; {@code null} until first built.
+     */
+    private volatile Map<String, CircuitManager> routingTable;
+
     /**
      * Construct an empty CompositeCircuitManager, with delegate CircuitManagers to be added via the {@link #setCircuitManagers "CircuitManagers"} property.
      */
@@ -77,6 +106,7 @@ public class CompositeCircuitManager implements CircuitManager, InitializingBean
     public void setCircuitManagers(Collection<CircuitManager> CircuitManagers) {
         this.circuitManagers.clear(); // just here to preserve compatibility with previous behavior
         this.circuitManagers.addAll(CircuitManagers);
+        this.routingTable = null;
     }
 
     /**
@@ -87,15 +117,52 @@ public class CompositeCircuitManager implements CircuitManager, InitializingBean
         this.fallbackToNoOpCircuitManager = fallbackToNoOpCache;
     }
 
+    /**
+     * Return the circuit breakers of all delegates, including those reached through the routing table.
+     */
     @Override
     public List<CircuitBreakerDefinition> getConfiguredCircuitBreakers() {
-        return null;
+        List<CircuitBreakerDefinition> definitions = new ArrayList<CircuitBreakerDefinition>();
+        for (CircuitManager manager : getDelegates()) {
+            List<CircuitBreakerDefinition> managerDefinitions = manager.getConfiguredCircuitBreakers();
+            if (managerDefinitions != null) {
+                definitions.addAll(managerDefinitions);
+            }
+        }
+        return definitions;
+    }
+
+    /**
+     * Return the configuration reported by the first {@link InspectableCircuitManager inspectable} delegate of the routing table that knows the named circuit
+     * breaker.
+     */
+    @Override
+    public Map<String, String> getCircuitBreakerConfiguration(String name) {
+        for (CircuitManager manager : getDelegates()) {
+            if (manager instanceof InspectableCircuitManager) {
+                Map<String, String> configuration = ((InspectableCircuitManager) manager).getCircuitBreakerConfiguration(name);
+                if (configuration != null && !configuration.isEmpty()) {
+                    return configuration;
+                }
+            }
+        }
+        return Collections.emptyMap();
     }
 
     @Override
     public void afterPropertiesSet() {
         if (this.fallbackToNoOpCircuitManager) {
-            this.circuitManagers.add(new NoOpCircuitManager());
+            this.circuitManagers.add(this.noOpCircuitManager);
+        }
+    }
+
+    /**
+     * Rebuild the routing table once the owning application context has been refreshed, when all delegate beans are available.
+     */
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (event.getApplicationContext() == this.applicationContext) {
+            this.routingTable = buildRoutingTable();
         }
     }
 
@@ -109,30 +176,90 @@ public class CompositeCircuitManager implements CircuitManager, InitializingBean
         return getApplicableManager(invoker).queue(invoker);
     }
 
+    /**
+     * Delegates to the applicable circuit manager, if it is an {@link AsynchronousCircuitManager}.
+     */
+    @Override
+    public boolean isAsynchronous(Invoker<?> invoker) {
+        CircuitManager manager = getApplicableManager(invoker);
+        return (manager instanceof AsynchronousCircuitManager && ((AsynchronousCircuitManager) manager).isAsynchronous(invoker));
+    }
+
+    /**
+     * Delegates to the applicable circuit manager, if it is a {@link PreparableCircuitManager}.
+     */
+    @Override
+    public void prepare(Invoker<?> invoker) {
+        CircuitManager manager = getApplicableManager(invoker);
+        if (manager instanceof PreparableCircuitManager) {
+            ((PreparableCircuitManager) manager).prepare(invoker);
+        }
+    }
+
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         this.applicationContext = applicationContext;
     }
-    
-    private CircuitManager getApplicableManager(Invoker<?> invoker) {
+
+    /**
+     * Return the delegate the given invocation is routed to.
+     * 
+     * @throws CircuitBreakerException
+     *             if no delegate is named after the invocation's circuit manager and there is no fallback to the {@link NoOpCircuitManager}
+     */
+    public CircuitManager getApplicableManager(Invoker<?> invoker) {
         String declaredManager = invoker.getCircuitBreakerAttribute().getCircuitManager();
 
-        CircuitManager applicableCircuitManager = null;
+        CircuitManager applicableCircuitManager = (declaredManager != null ? getRoutingTable().get(declaredManager) : null);
+        if (applicableCircuitManager == null) {
+            if (!fallbackToNoOpCircuitManager) {
+                throw new CircuitBreakerException("No circuit manager named '" + declaredManager + "' found for circuit breaker '"
+                        + invoker.getCircuitBreakerAttribute().getName() + "'");
+            }
+            applicableCircuitManager = noOpCircuitManager;
+        }
+
+        return applicableCircuitManager;
+    }
+
+    /**
+     * Return the delegates of the routing table followed by the configured delegates not in it, each once.
+     */
+    private List<CircuitManager> getDelegates() {
+        Set<CircuitManager> seen = Collections.newSetFromMap(new IdentityHashMap<CircuitManager, Boolean>());
+        List<CircuitManager> delegates = new ArrayList<CircuitManager>();
+        for (CircuitManager manager : getRoutingTable().values()) {
+            if (manager != this && seen.add(manager)) {
+                delegates.add(manager);
+            }
+        }
         for (CircuitManager manager : circuitManagers) {
-            if (manager != null) {
-                for (Map.Entry<String, ? extends CircuitManager> entry : applicationContext.getBeansOfType(manager.getClass()).entrySet()) {
-                    if (entry.getKey().equals(declaredManager)) {
-                        applicableCircuitManager = entry.getValue();
-                    }
-                }
+            if (manager != null && manager != this && seen.add(manager)) {
+                delegates.add(manager);
             }
         }
+        return delegates;
+    }
 
-        if (applicableCircuitManager == null && fallbackToNoOpCircuitManager) {
-            applicableCircuitManager = new NoOpCircuitManager();
+    private Map<String, CircuitManager> getRoutingTable() {
+        Map<String, CircuitManager> routes = this.routingTable;
+        if (routes == null) {
+            routes = buildRoutingTable();
+            this.routingTable = routes;
         }
+        return routes;
+    }
 
-        return applicableCircuitManager;
+    private Map<String, CircuitManager> buildRoutingTable() {
+        Map<String, CircuitManager> routes = new HashMap<String, CircuitManager>();
+        if (applicationContext != null) {
+            for (CircuitManager manager : circuitManagers) {
+                if (manager != null && manager != noOpCircuitManager) {
+                    routes.putAll(applicationContext.getBeansOfType(manager.getClass()));
+                }
+            }
+        }
+        return Collections.unmodifiableMap(routes);
     }
 
-}
\ No newline at end of file
+}
@@ -18,6 +18,7 @@ package com.developmentsprint.spring.breaker.support;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 import com.developmentsprint.spring.breaker.CircuitBreakerDefinition;
 import com.developmentsprint.spring.breaker.interceptor.DefaultCircuitBreakerAttribute;
@@ -56,8 +57,11 @@ public class DefaultCircuitBreakerDefinition implements CircuitBreakerDefinition
      * @see #setName
      */
     public DefaultCircuitBreakerDefinition(CircuitBreakerDefinition other) {
-        this.properties = other.getProperties();
+        if (other.getProperties() != null) {
+            this.properties.putAll(other.getProperties());
+        }
         this.name = other.getName();
+        this.circuitManager = other.getCircuitManager();
     }
 
     /**
@@ -130,7 +134,8 @@ public class DefaultCircuitBreakerDefinition implements CircuitBreakerDefinition
     protected final StringBuilder getDefinitionDescription() {
         StringBuilder result = new StringBuilder();
         result.append(name);
-        result.append(properties);
+        // sorted, so that equal properties describe equally whatever the map's iteration order
+        result.append(properties != null ? new TreeMap<String, String>(properties) : null);
         return result;
     }
 
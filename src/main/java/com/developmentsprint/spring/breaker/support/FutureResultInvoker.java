@@ -0,0 +1,86 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.support;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerException;
+import com.developmentsprint.spring.breaker.CircuitManager.Invoker;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttribute;
+
+/**
+ * {@link Invoker} for methods that return a {@link Future}. The invocation waits for the returned future, so that the circuit covers the asynchronous work as
+ * well and {@link com.developmentsprint.spring.breaker.CircuitManager#queue} can complete its own future with the result. Waiting blocks the thread the
+ * invocation runs on for as long as the asynchronous work takes, so this invoker is only used for circuits that ask for it through the
+ * {@value CircuitBreakerAspectSupport#AWAIT_FUTURE_PROPERTY} property, and only queued on an
+ * {@link com.developmentsprint.spring.breaker.AsynchronousCircuitManager} that runs it on a thread other than the caller's.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+class FutureResultInvoker<T> implements Invoker<T> {
+
+    private final Invoker<Future<T>> delegate;
+
+    FutureResultInvoker(Invoker<Future<T>> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public CircuitBreakerAttribute getCircuitBreakerAttribute() {
+        return delegate.getCircuitBreakerAttribute();
+    }
+
+    @Override
+    public T invoke() {
+        Future<T> future = delegate.invoke();
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CircuitBreakerException(e);
+        } catch (ExecutionException e) {
+            throw new CircuitBreakerException(e.getCause());
+        }
+    }
+
+    @Override
+    public Object getTarget() {
+        return delegate.getTarget();
+    }
+
+    @Override
+    public Class<?> getTargetClass() {
+        return delegate.getTargetClass();
+    }
+
+    @Override
+    public Method getMethod() {
+        return delegate.getMethod();
+    }
+
+    @Override
+    public Object[] getArguments() {
+        return delegate.getArguments();
+    }
+
+}
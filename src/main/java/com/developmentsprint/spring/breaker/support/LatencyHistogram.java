@@ -0,0 +1,278 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.support;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.developmentsprint.spring.breaker.LatencyDistribution;
+
+/**
+ * {@link LatencyDistribution} of a circuit breaker, kept as a histogram recorded at microsecond resolution over a rolling time window.
+ * 
+ * <p>
+ * Values are counted in log-linear buckets: exact below 16µs, and eight buckets per power of two above, so every reported value is within 12.5% of the
+ * recorded one. Values beyond about 19 hours are counted as such. Recording only increments a bucket counter; to keep threads from contending on the same
+ * counters, each interval keeps a set of counters per stripe of threads, allocated on first use.
+ * 
+ * <p>
+ * Recording goes into the current interval; once it has elapsed, the next recording swaps in a fresh interval and keeps the completed one. Percentiles are
+ * computed over the current and the previous interval, so they always cover at least one full interval of recent calls and reflect changes within two. Both
+ * intervals are published together in one {@link Window}, swapped by a single compare-and-set, so readers never see the intervals of different windows
+ * and do not allocate.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+public final class LatencyHistogram implements LatencyDistribution {
+
+    /**
+     * Default length of an interval: one minute, the same as Hystrix's rolling percentile window.
+     */
+    public static final long DEFAULT_INTERVAL_IN_MILLISECONDS = 60000L;
+
+    private static final int SUB_BUCKET_BITS = 3;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int LINEAR_BUCKETS = 2 * SUB_BUCKETS;
+
+    private static final int LINEAR_BITS = 4;
+
+    private static final int MAX_EXPONENT = 35;
+
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    static final int BUCKETS = LINEAR_BUCKETS + (MAX_EXPONENT - LINEAR_BITS + 1) * SUB_BUCKETS;
+
+    private static final int STRIPES = stripeCount(Runtime.getRuntime().availableProcessors());
+
+    private static final Interval[] NO_INTERVALS = new Interval[0];
+
+    private final long intervalInMillis;
+
+    private final AtomicReference<Window> window;
+
+    public LatencyHistogram() {
+        this(DEFAULT_INTERVAL_IN_MILLISECONDS);
+    }
+
+    /**
+     * Create a histogram whose percentiles cover the last one to two intervals of the given length.
+     */
+    public LatencyHistogram(long intervalInMillis) {
+        this.intervalInMillis = intervalInMillis;
+        this.window = new AtomicReference<Window>(new Window(new Interval(System.currentTimeMillis() + intervalInMillis), null));
+    }
+
+    /**
+     * Record a latency.
+     * 
+     * @param nanos
+     *            the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        Window recent = window.get();
+        long now = System.currentTimeMillis();
+        if (now >= recent.current.end) {
+            recent = swap(recent, now);
+        }
+        recent.current.stripe().incrementAndGet(bucketOf(TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    /**
+     * Return the number of latencies recorded in the intervals percentiles are computed over.
+     */
+    @Override
+    public long getCount() {
+        Interval[] intervals = recentIntervals();
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            count += countOf(intervals, bucket);
+        }
+        return count;
+    }
+
+    /**
+     * Return the latency at the given percentile.
+     * 
+     * @param percentile
+     *            the percentile, between 0 and 100 (e.g. 99.9)
+     * @return the latency in microseconds, or {@code 0} if nothing was recorded
+     */
+    @Override
+    public long getValueAtPercentile(double percentile) {
+        long[] values = new long[1];
+        getValuesAtPercentiles(new double[] { percentile }, values);
+        return values[0];
+    }
+
+    /**
+     * Compute the latencies at several percentiles in a single pass, without allocating.
+     * 
+     * @param percentiles
+     *            the percentiles, in ascending order
+     * @param values
+     *            receives the latency in microseconds at each of the percentiles, or {@code 0} if nothing was recorded
+     */
+    @Override
+    public void getValuesAtPercentiles(double[] percentiles, long[] values) {
+        Interval[] intervals = recentIntervals();
+        long total = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            total += countOf(intervals, bucket);
+        }
+
+        int next = 0;
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS && next < percentiles.length && total > 0; bucket++) {
+            seen += countOf(intervals, bucket);
+            while (next < percentiles.length && seen >= rankOf(percentiles[next], total)) {
+                values[next++] = highestValueOf(bucket);
+            }
+        }
+        while (next < percentiles.length) {
+            values[next++] = (total > 0 ? highestValueOf(BUCKETS - 1) : 0);
+        }
+    }
+
+    private static long rankOf(double percentile, long total) {
+        return Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+    }
+
+    private Window swap(Window expired, long now) {
+        Interval completed = expired.current;
+        // an interval that ended longer than an interval ago no longer counts as recent
+        Window next = new Window(new Interval(now + intervalInMillis), (now < completed.end + intervalInMillis ? completed : null));
+        if (window.compareAndSet(expired, next)) {
+            return next;
+        }
+        return window.get();
+    }
+
+    /**
+     * Return the intervals percentiles are computed over: the current and the previous interval while the current one is running, only the current one if
+     * it completed less than an interval ago, and none otherwise.
+     */
+    private Interval[] recentIntervals() {
+        long now = System.currentTimeMillis();
+        Window recent = window.get();
+        if (now < recent.current.end) {
+            return recent.intervals;
+        } else if (now < recent.current.end + intervalInMillis) {
+            // nothing was recorded since the current interval completed
+            return recent.current.alone;
+        }
+        return NO_INTERVALS;
+    }
+
+    private static long countOf(Interval[] intervals, int bucket) {
+        long count = 0;
+        for (Interval interval : intervals) {
+            count += interval.countOf(bucket);
+        }
+        return count;
+    }
+
+    static int bucketOf(long micros) {
+        long value = Math.min(Math.max(micros, 0), MAX_VALUE);
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - LINEAR_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = LINEAR_BITS + (bucket - LINEAR_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long lowest = (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    private static int stripeCount(int processors) {
+        int stripes = 1;
+        while (stripes < processors && stripes < 8) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    /**
+     * The current interval along with the previous one, if it still counts as recent.
+     */
+    private static final class Window {
+
+        private final Interval current;
+
+        /**
+         * The current and the previous interval, or the current one alone.
+         */
+        private final Interval[] intervals;
+
+        Window(Interval current, Interval previous) {
+            this.current = current;
+            this.intervals = (previous != null ? new Interval[] { current, previous } : current.alone);
+        }
+    }
+
+    /**
+     * Bucket counters of one interval, striped by thread.
+     */
+    private static final class Interval {
+
+        private final long end;
+
+        private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<AtomicLongArray>(STRIPES);
+
+        /**
+         * This interval on its own, as read while no previous interval counts.
+         */
+        private final Interval[] alone = { this };
+
+        Interval(long end) {
+            this.end = end;
+        }
+
+        AtomicLongArray stripe() {
+            int index = (int) Thread.currentThread().getId() & (STRIPES - 1);
+            AtomicLongArray stripe = stripes.get(index);
+            if (stripe == null) {
+                stripes.compareAndSet(index, null, new AtomicLongArray(BUCKETS));
+                stripe = stripes.get(index);
+            }
+            return stripe;
+        }
+
+        long countOf(int bucket) {
+            long count = 0;
+            for (int i = 0; i < stripes.length(); i++) {
+                AtomicLongArray stripe = stripes.get(i);
+                if (stripe != null) {
+                    count += stripe.get(bucket);
+                }
+            }
+            return count;
+        }
+    }
+
+}
@@ -15,44 +15,212 @@
  */
 package com.developmentsprint.spring.breaker.support;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.developmentsprint.spring.breaker.AsynchronousCircuitManager;
 import com.developmentsprint.spring.breaker.CircuitBreakerDefinition;
-import com.developmentsprint.spring.breaker.CircuitManager;
+import com.developmentsprint.spring.breaker.InspectableCircuitManager;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttribute;
 
 /**
- * A basic, no operation {@link CircuitManager} implementation suitable for disabling circuit breaking, typically used for backing circuit breaker declarations
- * without an actual backing circuit manager.
+ * A basic, no operation {@link com.developmentsprint.spring.breaker.CircuitManager} implementation suitable for disabling circuit breaking, typically used for
+ * backing circuit breaker declarations without an actual backing circuit manager.
  * 
+ * <p>
+ * Calls pass straight through to the underlying methods. {@link #queue Queued} calls run on the configured {@link #setExecutor executor}, or on the caller
+ * thread with an already completed future if there is none. If {@link #setRecordTimings enabled}, the number of executions, failures and the total execution
+ * time are recorded per circuit breaker, along with histograms of execution and queue wait times, and reported by the
+ * {@link com.developmentsprint.spring.breaker.CircuitBreakerStatus statuses} of {@link #getConfiguredCircuitBreakers()}, which makes this manager usable as a
+ * baseline for benchmarks of circuit breaker protected code.
  * 
  * @author Todd Orr
  * @since 1.0
  * @see CompositeCircuitManager
  */
-public class NoOpCircuitManager implements CircuitManager {
+public class NoOpCircuitManager implements AsynchronousCircuitManager, InspectableCircuitManager {
+
+    private final ConcurrentMap<String, Timing> timings = new ConcurrentHashMap<String, Timing>();
+
+    private Executor executor;
+
+    private boolean recordTimings = false;
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Set the executor that runs {@link #queue queued} calls. By default, queued calls run on the caller thread and a completed future is returned.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public boolean isRecordTimings() {
+        return recordTimings;
+    }
+
+    /**
+     * Set whether executions are counted and timed per circuit breaker. Default is {@code false}.
+     */
+    public void setRecordTimings(boolean recordTimings) {
+        this.recordTimings = recordTimings;
+    }
 
     /**
      * Performs no circuit breaking. This method passes through to the actual invocation.
      */
     @Override
     public <T> T execute(Invoker<T> invoker) {
-        return invoker.invoke();
+        if (!recordTimings) {
+            return invoker.invoke();
+        }
+
+        Timing timing = getTiming(invoker.getCircuitBreakerAttribute());
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = invoker.invoke();
+            success = true;
+            return result;
+        } finally {
+            timing.record(System.nanoTime() - start, success);
+        }
     }
 
     /**
-     * Performs no circuit breaking. This method passes through to the actual invocation.
+     * Performs no circuit breaking. This method passes through to the actual invocation, on the configured executor if any, otherwise on the calling thread
+     * returning a completed future.
      */
     @Override
-    public <T> Future<T> queue(Invoker<T> invoker) {
-        // TODO Auto-generated method stub
-        return null;
+    public <T> Future<T> queue(final Invoker<T> invoker) {
+        if (executor == null) {
+            FutureTask<T> future = new FutureTask<T>(new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    return execute(invoker);
+                }
+            });
+            future.run();
+            return future;
+        }
+
+        final long queued = (recordTimings ? System.nanoTime() : 0L);
+        FutureTask<T> future = new FutureTask<T>(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                if (recordTimings) {
+                    getTiming(invoker.getCircuitBreakerAttribute()).getQueueWaitLatency().record(System.nanoTime() - queued);
+                }
+                return execute(invoker);
+            }
+        });
+        executor.execute(future);
+        return future;
     }
 
+    /**
+     * Return the {@link com.developmentsprint.spring.breaker.CircuitBreakerStatus live status} of the circuit breakers executed so far, if timings are
+     * recorded. No op circuits never open.
+     */
     @Override
     public List<CircuitBreakerDefinition> getConfiguredCircuitBreakers() {
-        // TODO Auto-generated method stub
-        return null;
+        return new ArrayList<CircuitBreakerDefinition>(timings.values());
+    }
+
+    /**
+     * Performs no circuit breaking, hence there is no configuration to report.
+     */
+    @Override
+    public Map<String, String> getCircuitBreakerConfiguration(String name) {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Queued calls only run on another thread if an executor is configured.
+     */
+    @Override
+    public boolean isAsynchronous(Invoker<?> invoker) {
+        return (executor != null);
+    }
+
+    private Timing getTiming(CircuitBreakerAttribute attr) {
+        Timing timing = timings.get(attr.getName());
+        if (timing == null) {
+            Timing created = new Timing(attr);
+            timing = timings.putIfAbsent(attr.getName(), created);
+            if (timing == null) {
+                timing = created;
+            }
+        }
+        return timing;
+    }
+
+    /**
+     * Execution counters of a single circuit breaker.
+     */
+    private static class Timing extends AbstractCircuitBreakerStatus {
+
+        private final AtomicLong executions = new AtomicLong();
+
+        private final AtomicLong failures = new AtomicLong();
+
+        private final AtomicLong totalNanos = new AtomicLong();
+
+        Timing(CircuitBreakerAttribute attribute) {
+            super(attribute);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return false;
+        }
+
+        @Override
+        public int getErrorPercentage() {
+            long total = executions.get();
+            return (total == 0 ? 0 : (int) (failures.get() * 100L / total));
+        }
+
+        @Override
+        public int getConcurrentRequests() {
+            return 0;
+        }
+
+        @Override
+        public long getExecutionCount() {
+            return executions.get();
+        }
+
+        @Override
+        public long getFailureCount() {
+            return failures.get();
+        }
+
+        @Override
+        public long getTotalExecutionTimeInMicroseconds() {
+            return TimeUnit.NANOSECONDS.toMicros(totalNanos.get());
+        }
+
+        void record(long nanos, boolean success) {
+            executions.incrementAndGet();
+            if (!success) {
+                failures.incrementAndGet();
+            }
+            totalNanos.addAndGet(nanos);
+            getExecutionLatency().record(nanos);
+        }
     }
 
 }
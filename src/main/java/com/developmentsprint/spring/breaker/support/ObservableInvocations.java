@@ -0,0 +1,60 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.support;
+
+import rx.Observable;
+
+import com.developmentsprint.spring.breaker.CircuitManager;
+import com.developmentsprint.spring.breaker.CircuitManager.Invoker;
+import com.developmentsprint.spring.breaker.ReactiveCircuitManager;
+
+/**
+ * Routes invocations of methods returning an RxJava {@link Observable} through a {@link ReactiveCircuitManager}. Kept separate from
+ * {@link CircuitBreakerAspectSupport} so that RxJava is only loaded when it is present.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+abstract class ObservableInvocations {
+
+    /**
+     * Return whether the invocation returns an {@link Observable} and the circuit manager can execute it reactively.
+     */
+    static boolean isObservable(CircuitManager circuitManager, Invoker<?> invoker) {
+        return (Observable.class.equals(invoker.getMethod().getReturnType()) && getReactiveManager(circuitManager, invoker) != null);
+    }
+
+    /**
+     * Return an {@link Observable} that runs the invocation within the circuit once subscribed to, passing on the items of the {@link Observable} returned
+     * from the method as they are emitted.
+     */
+    static <T> Observable<T> toObservable(CircuitManager circuitManager, Invoker<Observable<T>> invoker) {
+        return getReactiveManager(circuitManager, invoker).wrapObservable(invoker);
+    }
+
+    /**
+     * Return the circuit manager that executes the invocation, resolved through the routing table of a {@link CompositeCircuitManager}, if it is a
+     * {@link ReactiveCircuitManager}.
+     */
+    private static ReactiveCircuitManager getReactiveManager(CircuitManager circuitManager, Invoker<?> invoker) {
+        CircuitManager manager = circuitManager;
+        if (manager instanceof CompositeCircuitManager) {
+            manager = ((CompositeCircuitManager) manager).getApplicableManager(invoker);
+        }
+        return (manager instanceof ReactiveCircuitManager ? (ReactiveCircuitManager) manager : null);
+    }
+
+}
@@ -0,0 +1,402 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.support;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerException;
+import com.developmentsprint.spring.breaker.ControllableCircuitBreaker;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttribute;
+
+/**
+ * Lock-free circuit breaker used by the {@link SimpleCircuitManager}.
+ * 
+ * <p>
+ * The state (closed, open or half-open) is switched by compare-and-set. Outcomes of the most recent calls are kept in a ring buffer with a running failure
+ * count, so recording an outcome costs a few atomic operations and no allocation. Once the window holds at least the request volume threshold of calls and
+ * the failure percentage reaches the error threshold, the circuit opens. After the sleep window a single trial call is let through; its outcome closes or
+ * re-opens the circuit.
+ * 
+ * <p>
+ * The circuit breaker is its own {@link com.developmentsprint.spring.breaker.CircuitBreakerStatus}, recording the latencies of its calls. All properties except
+ * the window size can be {@link #setProperty changed} while the circuit is in use.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+final class SimpleCircuitBreaker extends AbstractCircuitBreakerStatus implements ControllableCircuitBreaker {
+
+    static final String ENABLED = "circuitBreaker.enabled";
+
+    static final String FORCE_OPEN = "circuitBreaker.forceOpen";
+
+    static final String FORCE_CLOSED = "circuitBreaker.forceClosed";
+
+    static final String REQUEST_VOLUME_THRESHOLD = "circuitBreaker.requestVolumeThreshold";
+
+    static final String ERROR_THRESHOLD_PERCENTAGE = "circuitBreaker.errorThresholdPercentage";
+
+    static final String SLEEP_WINDOW_IN_MILLISECONDS = "circuitBreaker.sleepWindowInMilliseconds";
+
+    static final String WINDOW_SIZE = "circuitBreaker.windowSize";
+
+    static final String MAX_CONCURRENT_REQUESTS = "execution.isolation.semaphore.maxConcurrentRequests";
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * How a call is admitted by {@link SimpleCircuitBreaker#allowRequest()}.
+     */
+    enum Admission {
+
+        /** The circuit is open, the call must not pass. */
+        REJECTED,
+
+        /** The call passes as a regular call. */
+        ALLOWED,
+
+        /** The call passes as the trial call of the half-open circuit; its outcome alone closes or re-opens the circuit. */
+        TRIAL
+    }
+
+    private static final int CLOSED = 0;
+
+    private static final int OPEN = 1;
+
+    private static final int HALF_OPEN = 2;
+
+    private static final State[] STATES = { State.CLOSED, State.OPEN, State.HALF_OPEN };
+
+    private final CircuitBreakerAttribute attribute;
+
+    /**
+     * The attributes served by this circuit breaker, its own first, matched by identity. Copied on write, as attributes are only added when a method sharing
+     * the circuit, or a redefined attribute, is first seen.
+     */
+    private volatile CircuitBreakerAttribute[] attributes;
+
+    private volatile boolean enabled;
+
+    private volatile boolean forceOpen;
+
+    private volatile boolean forceClosed;
+
+    private volatile int requestVolumeThreshold;
+
+    private volatile int errorThresholdPercentage;
+
+    private volatile long sleepWindowInNanos;
+
+    private volatile int maxConcurrentRequests;
+
+    private static final long NANO_ORIGIN = System.nanoTime();
+
+    /**
+     * The state in the lowest two bits and, while open or half-open, the time the circuit opened (in nanoseconds since {@link #NANO_ORIGIN}) in the
+     * remaining bits, so both are switched by a single compare-and-set.
+     */
+    private final AtomicLong status = new AtomicLong(CLOSED);
+
+    private final AtomicIntegerArray outcomes;
+
+    private final AtomicLong calls = new AtomicLong();
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+
+    SimpleCircuitBreaker(CircuitBreakerAttribute attribute) {
+        super(attribute);
+        this.attribute = attribute;
+        this.attributes = new CircuitBreakerAttribute[] { attribute };
+        Map<String, String> properties = attribute.getProperties();
+        this.enabled = getBoolean(properties, ENABLED, true);
+        this.forceOpen = getBoolean(properties, FORCE_OPEN, false);
+        this.forceClosed = getBoolean(properties, FORCE_CLOSED, false);
+        this.requestVolumeThreshold = getInt(properties, REQUEST_VOLUME_THRESHOLD, 20);
+        this.errorThresholdPercentage = getInt(properties, ERROR_THRESHOLD_PERCENTAGE, 50);
+        this.sleepWindowInNanos = TimeUnit.MILLISECONDS.toNanos(getInt(properties, SLEEP_WINDOW_IN_MILLISECONDS, 5000));
+        this.maxConcurrentRequests = getInt(properties, MAX_CONCURRENT_REQUESTS, Integer.MAX_VALUE);
+        this.outcomes = new AtomicIntegerArray(Math.max(getInt(properties, WINDOW_SIZE, 100), 1));
+    }
+
+    /**
+     * Return whether this circuit breaker already serves the given attribute instance.
+     */
+    boolean isBreakerFor(CircuitBreakerAttribute other) {
+        for (CircuitBreakerAttribute known : attributes) {
+            if (known == other) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Let this circuit breaker serve another attribute of its name. The circuit stays configured by its first attribute. A known attribute equal to the
+     * given one (e.g. the instance it was refreshed from) is replaced, so that the attributes do not accumulate.
+     * 
+     * @return {@code true} if the properties of the given attribute differ from those the circuit is configured with
+     */
+    synchronized boolean addAttribute(CircuitBreakerAttribute other) {
+        if (isBreakerFor(other)) {
+            return false;
+        }
+        CircuitBreakerAttribute[] attributes = this.attributes;
+        for (int i = 1; i < attributes.length; i++) {
+            if (attributes[i].equals(other)) {
+                CircuitBreakerAttribute[] replaced = attributes.clone();
+                replaced[i] = other;
+                this.attributes = replaced;
+                return false;
+            }
+        }
+        CircuitBreakerAttribute[] extended = new CircuitBreakerAttribute[attributes.length + 1];
+        System.arraycopy(attributes, 0, extended, 0, attributes.length);
+        extended[attributes.length] = other;
+        this.attributes = extended;
+        return !attribute.getProperties().equals(other.getProperties());
+    }
+
+    /**
+     * Try to acquire a concurrent-request permit. Every successful call has to be paired with {@link #release()}.
+     */
+    boolean tryAcquire() {
+        int maxConcurrentRequests = this.maxConcurrentRequests;
+        if (maxConcurrentRequests == Integer.MAX_VALUE) {
+            concurrentRequests.incrementAndGet();
+            return true;
+        }
+        while (true) {
+            int current = concurrentRequests.get();
+            if (current >= maxConcurrentRequests) {
+                return false;
+            }
+            if (concurrentRequests.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release() {
+        concurrentRequests.decrementAndGet();
+    }
+
+    /**
+     * Return whether and how a call may pass. In the open state, the first caller after the sleep window switches the circuit to half-open and is let
+     * through as the trial call. The admission has to be handed to {@link #onSuccess} or {@link #onFailure} along with the outcome of the call.
+     */
+    Admission allowRequest() {
+        if (!enabled || forceClosed) {
+            return Admission.ALLOWED;
+        }
+        if (forceOpen) {
+            return Admission.REJECTED;
+        }
+        long current = status.get();
+        switch (stateOf(current)) {
+        case CLOSED:
+            return Admission.ALLOWED;
+        case OPEN:
+            if (now() - (current >>> 2) >= sleepWindowInNanos && status.compareAndSet(current, (current & ~3L) | HALF_OPEN)) {
+                return Admission.TRIAL;
+            }
+            return Admission.REJECTED;
+        default:
+            return Admission.REJECTED;
+        }
+    }
+
+    /**
+     * Record a successful call. Only the trial call closes a half-open circuit; a call admitted before the circuit opened merely counts in the window.
+     * 
+     * @return whether this call closed the circuit
+     */
+    boolean onSuccess(Admission admission) {
+        if (admission == Admission.TRIAL) {
+            long current = status.get();
+            if (stateOf(current) != HALF_OPEN) {
+                return false;
+            }
+            resetWindow();
+            return status.compareAndSet(current, CLOSED);
+        }
+        record(0);
+        return false;
+    }
+
+    /**
+     * Record a failed call.
+     * 
+     * @return whether this call opened the closed circuit; a failed trial call re-opens a half-open circuit, which does not count as opening it
+     */
+    boolean onFailure(Admission admission) {
+        if (admission == Admission.TRIAL) {
+            trip(HALF_OPEN);
+            return false;
+        }
+        record(1);
+        long total = Math.min(calls.get(), outcomes.length());
+        if (total >= requestVolumeThreshold && failures.get() * 100L >= errorThresholdPercentage * total) {
+            return trip(CLOSED);
+        }
+        return false;
+    }
+
+    State getState() {
+        return STATES[stateOf(status.get())];
+    }
+
+    @Override
+    public boolean isOpen() {
+        return (stateOf(status.get()) != CLOSED);
+    }
+
+    @Override
+    public int getConcurrentRequests() {
+        return concurrentRequests.get();
+    }
+
+    /**
+     * Return the percentage of failed calls in the current window.
+     */
+    @Override
+    public int getErrorPercentage() {
+        long total = Math.min(calls.get(), outcomes.length());
+        return (total == 0 ? 0 : (int) (failures.get() * 100L / total));
+    }
+
+    @Override
+    public void forceOpen() {
+        forceClosed = false;
+        forceOpen = true;
+    }
+
+    @Override
+    public void forceClosed() {
+        forceOpen = false;
+        forceClosed = true;
+    }
+
+    @Override
+    public void reset() {
+        forceOpen = false;
+        forceClosed = false;
+        resetWindow();
+        status.set(CLOSED);
+    }
+
+    @Override
+    public boolean isForcedOpen() {
+        return forceOpen;
+    }
+
+    @Override
+    public boolean isForcedClosed() {
+        return forceClosed;
+    }
+
+    @Override
+    public void setProperty(String key, String value) {
+        Map<String, String> properties = Collections.singletonMap(key, value);
+        if (ENABLED.equals(key)) {
+            enabled = getBoolean(properties, key, true);
+        } else if (FORCE_OPEN.equals(key)) {
+            forceOpen = getBoolean(properties, key, false);
+        } else if (FORCE_CLOSED.equals(key)) {
+            forceClosed = getBoolean(properties, key, false);
+        } else if (REQUEST_VOLUME_THRESHOLD.equals(key)) {
+            requestVolumeThreshold = getInt(properties, key, 20);
+        } else if (ERROR_THRESHOLD_PERCENTAGE.equals(key)) {
+            errorThresholdPercentage = getInt(properties, key, 50);
+        } else if (SLEEP_WINDOW_IN_MILLISECONDS.equals(key)) {
+            sleepWindowInNanos = TimeUnit.MILLISECONDS.toNanos(getInt(properties, key, 5000));
+        } else if (MAX_CONCURRENT_REQUESTS.equals(key)) {
+            maxConcurrentRequests = getInt(properties, key, Integer.MAX_VALUE);
+        } else {
+            throw new CircuitBreakerException("Circuit breaker property " + key + " cannot be changed at runtime");
+        }
+    }
+
+    Map<String, String> getConfiguration() {
+        Map<String, String> configuration = new LinkedHashMap<String, String>();
+        configuration.put(ENABLED, String.valueOf(enabled));
+        configuration.put(FORCE_OPEN, String.valueOf(forceOpen));
+        configuration.put(FORCE_CLOSED, String.valueOf(forceClosed));
+        configuration.put(REQUEST_VOLUME_THRESHOLD, String.valueOf(requestVolumeThreshold));
+        configuration.put(ERROR_THRESHOLD_PERCENTAGE, String.valueOf(errorThresholdPercentage));
+        configuration.put(SLEEP_WINDOW_IN_MILLISECONDS, String.valueOf(TimeUnit.NANOSECONDS.toMillis(sleepWindowInNanos)));
+        configuration.put(WINDOW_SIZE, String.valueOf(outcomes.length()));
+        configuration.put(MAX_CONCURRENT_REQUESTS, String.valueOf(maxConcurrentRequests));
+        return Collections.unmodifiableMap(configuration);
+    }
+
+    private boolean trip(int from) {
+        long current = status.get();
+        return (stateOf(current) == from && status.compareAndSet(current, (now() << 2) | OPEN));
+    }
+
+    private static int stateOf(long status) {
+        return (int) (status & 3L);
+    }
+
+    private static long now() {
+        return System.nanoTime() - NANO_ORIGIN;
+    }
+
+    private void record(int outcome) {
+        int slot = (int) (calls.getAndIncrement() % outcomes.length());
+        int previous = outcomes.getAndSet(slot, outcome);
+        if (previous != outcome) {
+            failures.addAndGet(outcome - previous);
+        }
+    }
+
+    private void resetWindow() {
+        for (int i = 0; i < outcomes.length(); i++) {
+            if (outcomes.getAndSet(i, 0) != 0) {
+                failures.decrementAndGet();
+            }
+        }
+        calls.set(0);
+    }
+
+    private static boolean getBoolean(Map<String, String> properties, String key, boolean defaultValue) {
+        String value = properties.get(key);
+        return (value != null ? Boolean.parseBoolean(value.trim()) : defaultValue);
+    }
+
+    private static int getInt(Map<String, String> properties, String key, int defaultValue) {
+        String value = properties.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new CircuitBreakerException("Invalid value '" + value + "' for circuit breaker property " + key, e);
+        }
+    }
+
+}
@@ -0,0 +1,261 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.developmentsprint.spring.breaker.AsynchronousCircuitManager;
+import com.developmentsprint.spring.breaker.CircuitBreakerDefinition;
+import com.developmentsprint.spring.breaker.CircuitBreakerEventListener;
+import com.developmentsprint.spring.breaker.CircuitBreakerEventListener.Outcome;
+import com.developmentsprint.spring.breaker.CircuitOpenException;
+import com.developmentsprint.spring.breaker.CircuitOverloadException;
+import com.developmentsprint.spring.breaker.InspectableCircuitManager;
+import com.developmentsprint.spring.breaker.PreparableCircuitManager;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttribute;
+import com.developmentsprint.spring.breaker.monitor.CircuitBreakerMBeanRegistrar;
+import com.developmentsprint.spring.breaker.support.SimpleCircuitBreaker.Admission;
+
+/**
+ * Self-contained {@link com.developmentsprint.spring.breaker.CircuitManager} implementation without external dependencies.
+ * 
+ * <p>
+ * Each circuit is backed by a lock-free circuit breaker with a count-based rolling window of outcomes. Calls run on the caller thread; there is no timeout
+ * enforcement. Circuits are configured through the properties of their {@link CircuitBreakerAttribute}, using the same keys as Hystrix where the concepts
+ * match:
+ * <ul>
+ * <li>{@code circuitBreaker.enabled} (default {@code true})</li>
+ * <li>{@code circuitBreaker.forceOpen} / {@code circuitBreaker.forceClosed} (default {@code false})</li>
+ * <li>{@code circuitBreaker.requestVolumeThreshold}: minimum number of calls in the window before the circuit may open (default 20)</li>
+ * <li>{@code circuitBreaker.errorThresholdPercentage}: failure percentage at which the circuit opens (default 50)</li>
+ * <li>{@code circuitBreaker.sleepWindowInMilliseconds}: time an open circuit rejects calls before a trial call is let through (default 5000)</li>
+ * <li>{@code circuitBreaker.windowSize}: number of most recent calls the failure percentage is computed from (default 100)</li>
+ * <li>{@code execution.isolation.semaphore.maxConcurrentRequests}: maximum number of concurrent calls (default unbounded)</li>
+ * </ul>
+ * 
+ * <p>
+ * Calls rejected by an open circuit fail with a {@link CircuitOpenException}, calls exceeding the concurrency limit with a {@link CircuitOverloadException}.
+ * 
+ * @author Todd Orr
+ * @since 0.0.6
+ */
+public class SimpleCircuitManager implements AsynchronousCircuitManager, PreparableCircuitManager, InspectableCircuitManager {
+
+    private static final Logger log = LoggerFactory.getLogger(SimpleCircuitManager.class);
+
+    private static final String ISOLATION = "SEMAPHORE";
+
+    private final ConcurrentMap<String, SimpleCircuitBreaker> circuitBreakers = new ConcurrentHashMap<String, SimpleCircuitBreaker>();
+
+    private Executor executor;
+
+    private CircuitBreakerEventListener eventListener;
+
+    private CircuitBreakerMBeanRegistrar mbeanRegistrar;
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Set the executor that runs {@link #queue queued} calls. By default, queued calls run on the caller thread and a completed future is returned.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public CircuitBreakerEventListener getEventListener() {
+        return eventListener;
+    }
+
+    /**
+     * Set a listener to be notified of executions, rejections and state transitions of the circuit breakers. Calls run on the caller thread within a
+     * concurrency limit, so executions are reported with isolation {@code SEMAPHORE}. There is no listener by default.
+     */
+    public void setEventListener(CircuitBreakerEventListener eventListener) {
+        this.eventListener = eventListener;
+    }
+
+    public CircuitBreakerMBeanRegistrar getMbeanRegistrar() {
+        return mbeanRegistrar;
+    }
+
+    /**
+     * Set the registrar of the MBeans through which the circuit breakers are monitored and controlled. Each circuit breaker is registered when it is
+     * created. There are no MBeans by default.
+     */
+    public void setMbeanRegistrar(CircuitBreakerMBeanRegistrar mbeanRegistrar) {
+        this.mbeanRegistrar = mbeanRegistrar;
+    }
+
+    @Override
+    public <T> T execute(Invoker<T> invoker) {
+        return execute(invoker, 0L);
+    }
+
+    private <T> T execute(Invoker<T> invoker, long queueWaitNanos) {
+        SimpleCircuitBreaker circuitBreaker = getCircuitBreaker(invoker);
+        CircuitBreakerEventListener listener = this.eventListener;
+
+        if (!circuitBreaker.tryAcquire()) {
+            if (listener != null) {
+                listener.onRejection(circuitBreaker);
+            }
+            throw new CircuitOverloadException("Circuit breaker '" + invoker.getCircuitBreakerAttribute().getName() + "' reached its concurrency limit");
+        }
+        try {
+            Admission admission = circuitBreaker.allowRequest();
+            if (admission == Admission.REJECTED) {
+                if (listener != null) {
+                    listener.onShortCircuit(circuitBreaker);
+                }
+                throw new CircuitOpenException("Circuit breaker '" + invoker.getCircuitBreakerAttribute().getName() + "' is open");
+            }
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                T result = invoker.invoke();
+                success = true;
+                return result;
+            } finally {
+                // records any throwable as failure, including checked exceptions thrown undeclared (e.g. through an AspectJ proceed)
+                record(circuitBreaker, admission, success, listener, queueWaitNanos, System.nanoTime() - start);
+            }
+        } finally {
+            circuitBreaker.release();
+        }
+    }
+
+    private void record(SimpleCircuitBreaker circuitBreaker, Admission admission, boolean success, CircuitBreakerEventListener listener,
+            long queueWaitNanos, long executionNanos) {
+        circuitBreaker.getExecutionLatency().record(executionNanos);
+        boolean transitioned = (success ? circuitBreaker.onSuccess(admission) : circuitBreaker.onFailure(admission));
+        if (listener != null) {
+            listener.onExecution(circuitBreaker, (success ? Outcome.SUCCESS : Outcome.FAILURE), ISOLATION, queueWaitNanos, executionNanos);
+            if (transitioned) {
+                listener.onStateTransition(circuitBreaker, !success);
+            }
+        }
+    }
+
+    /**
+     * Run the call on the configured executor, or on the caller thread if there is none. The time a call waits for the executor is recorded as its
+     * {@link com.developmentsprint.spring.breaker.CircuitBreakerStatus#getQueueWaitLatency() queue wait}.
+     */
+    @Override
+    public <T> Future<T> queue(final Invoker<T> invoker) {
+        if (executor == null) {
+            FutureTask<T> future = new FutureTask<T>(new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    return execute(invoker);
+                }
+            });
+            future.run();
+            return future;
+        }
+
+        final long queued = System.nanoTime();
+        FutureTask<T> future = new FutureTask<T>(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                long queueWaitNanos = System.nanoTime() - queued;
+                getCircuitBreaker(invoker).getQueueWaitLatency().record(queueWaitNanos);
+                return execute(invoker, queueWaitNanos);
+            }
+        });
+        executor.execute(future);
+        return future;
+    }
+
+    /**
+     * Queued calls only run on another thread if an executor is configured.
+     */
+    @Override
+    public boolean isAsynchronous(Invoker<?> invoker) {
+        return (executor != null);
+    }
+
+    @Override
+    public void prepare(Invoker<?> invoker) {
+        getCircuitBreaker(invoker);
+    }
+
+    /**
+     * Return the {@link com.developmentsprint.spring.breaker.CircuitBreakerStatus live status} of every circuit created so far.
+     */
+    @Override
+    public List<CircuitBreakerDefinition> getConfiguredCircuitBreakers() {
+        return new ArrayList<CircuitBreakerDefinition>(circuitBreakers.values());
+    }
+
+    /**
+     * Return the configuration of the named circuit breaker, along with its current {@code state}, {@code errorPercentage} and {@code concurrentRequests}.
+     */
+    @Override
+    public Map<String, String> getCircuitBreakerConfiguration(String name) {
+        SimpleCircuitBreaker circuitBreaker = circuitBreakers.get(name);
+        if (circuitBreaker == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> configuration = new LinkedHashMap<String, String>(circuitBreaker.getConfiguration());
+        configuration.put("state", circuitBreaker.getState().name());
+        configuration.put("errorPercentage", String.valueOf(circuitBreaker.getErrorPercentage()));
+        configuration.put("concurrentRequests", String.valueOf(circuitBreaker.getConcurrentRequests()));
+        return Collections.unmodifiableMap(configuration);
+    }
+
+    /**
+     * Return the circuit breaker of the given attribute's name, creating it on first use.
+     * 
+     * <p>
+     * A circuit is configured by the first attribute of its name. Other attributes of the same name (e.g. of another method sharing the circuit, or a
+     * redefined attribute) share the circuit as configured, so that all their calls count towards opening it.
+     */
+    private SimpleCircuitBreaker getCircuitBreaker(Invoker<?> invoker) {
+        CircuitBreakerAttribute attr = invoker.getCircuitBreakerAttribute();
+        SimpleCircuitBreaker circuitBreaker = circuitBreakers.get(attr.getName());
+        if (circuitBreaker == null) {
+            SimpleCircuitBreaker created = new SimpleCircuitBreaker(attr);
+            circuitBreaker = circuitBreakers.putIfAbsent(attr.getName(), created);
+            if (circuitBreaker == null) {
+                if (mbeanRegistrar != null) {
+                    mbeanRegistrar.register(created);
+                }
+                return created;
+            }
+        }
+        if (!circuitBreaker.isBreakerFor(attr) && circuitBreaker.addAttribute(attr)) {
+            log.warn("Circuit breaker '{}' is defined with different properties by {}; the properties of its first definition apply", attr.getName(),
+                    invoker.getMethod());
+        }
+        return circuitBreaker;
+    }
+
+}
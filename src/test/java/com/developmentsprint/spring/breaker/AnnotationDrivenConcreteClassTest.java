@@ -115,4 +115,21 @@ public class AnnotationDrivenConcreteClassTest {
         assertThat(cbAttribute.getProperties()).hasSize(0);
     }
 
+    @Test
+    public void testCachedAttribute() throws Exception {
+
+        ArgumentCaptor<Invoker> invokerCaptor = ArgumentCaptor.forClass(Invoker.class);
+
+        assertThat(methods.echo(null)).isNull();
+        assertThat(methods.echo("text")).isEqualTo("text");
+
+        verify(mockCircuitManager, times(2)).execute(invokerCaptor.capture());
+
+        CircuitBreakerAttribute first = invokerCaptor.getAllValues().get(0).getCircuitBreakerAttribute();
+        CircuitBreakerAttribute second = invokerCaptor.getAllValues().get(1).getCircuitBreakerAttribute();
+
+        assertThat(first.getName()).isEqualTo("echo");
+        assertThat(second).isSameAs(first);
+    }
+
 }
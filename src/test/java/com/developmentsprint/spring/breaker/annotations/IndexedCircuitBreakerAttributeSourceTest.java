@@ -0,0 +1,68 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.annotations;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.MapAssert.entry;
+
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+import com.developmentsprint.spring.breaker.hystrix.test.HystrixAnnotatedFooBar;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttribute;
+import com.developmentsprint.spring.breaker.test.AnnotatedFooBar;
+import com.developmentsprint.spring.breaker.test.AnnotatedFooBarImpl;
+import com.developmentsprint.spring.breaker.test.FooBarImpl;
+
+public class IndexedCircuitBreakerAttributeSourceTest {
+
+    private final IndexedCircuitBreakerAttributeSource indexedSource = new IndexedCircuitBreakerAttributeSource();
+
+    private final AnnotationCircuitBreakerAttributeSource annotationSource = new AnnotationCircuitBreakerAttributeSource();
+
+    @Test
+    public void testSameAttributesAsAnnotations() throws Exception {
+        for (Method method : HystrixAnnotatedFooBar.class.getMethods()) {
+            assertThat(indexedSource.getCircuitBreakerAttribute(method, HystrixAnnotatedFooBar.class)).isEqualTo(
+                    annotationSource.getCircuitBreakerAttribute(method, HystrixAnnotatedFooBar.class));
+        }
+    }
+
+    @Test
+    public void testIndexedMethod() throws Exception {
+        Method method = HystrixAnnotatedFooBar.class.getMethod("getSlowText");
+        CircuitBreakerAttribute attribute = indexedSource.getCircuitBreakerAttribute(method, HystrixAnnotatedFooBar.class);
+
+        assertThat(attribute.getName()).isEqualTo("AnnotatedGetSlowTextMethodGuard");
+        assertThat(attribute.getProperties()).includes(entry("execution.isolation.strategy", "SEMAPHORE"),
+                entry("execution.isolation.thread.timeoutInMilliseconds", "200"));
+    }
+
+    @Test
+    public void testDefaultName() throws Exception {
+        Method method = AnnotatedFooBar.class.getMethod("echo", String.class);
+        assertThat(indexedSource.getCircuitBreakerAttribute(method, AnnotatedFooBar.class).getName()).isEqualTo("echo");
+    }
+
+    @Test
+    public void testCandidateClasses() {
+        assertThat(indexedSource.matches(AnnotatedFooBar.class)).isTrue();
+        assertThat(indexedSource.matches(AnnotatedFooBarImpl.class)).isTrue();
+        assertThat(indexedSource.matches(FooBarImpl.class)).isFalse();
+    }
+
+}
@@ -16,15 +16,19 @@
 package com.developmentsprint.spring.breaker.hystrix;
 
 import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.MapAssert.entry;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
+import org.apache.commons.lang.StringUtils;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,9 +36,15 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import rx.Observable;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerDefinition;
 import com.developmentsprint.spring.breaker.CircuitBreakerException;
-import com.developmentsprint.spring.breaker.CircuitManager;
+import com.developmentsprint.spring.breaker.CircuitBreakerStatus;
+import com.developmentsprint.spring.breaker.CircuitTimeoutException;
+import com.developmentsprint.spring.breaker.InspectableCircuitManager;
 import com.developmentsprint.spring.breaker.hystrix.test.HystrixAnnotatedFooBar;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestContext;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration(locations = "classpath:context.xml")
@@ -45,7 +55,7 @@ public class HystrixAnnotationDrivenConcreteClassTest {
     private HystrixAnnotatedFooBar methods;
 
     @Autowired
-    private CircuitManager circuitManager;
+    private InspectableCircuitManager circuitManager;
 
     @Test
     public void testFallback() {
@@ -69,6 +79,126 @@ public class HystrixAnnotationDrivenConcreteClassTest {
         }
     }
 
+    @Test
+    public void testSemaphoreIsolation() {
+        assertThat(methods.getCallerThread()).isEqualTo(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void testSemaphoreIsolationTimeout() {
+        long start = System.currentTimeMillis();
+        try {
+            methods.getSlowText();
+            fail("Shouldn't get here");
+        } catch (CircuitTimeoutException e) {
+            assertThat(System.currentTimeMillis() - start).isLessThan(2000L);
+            assertThat(Thread.currentThread().isInterrupted()).isFalse();
+        }
+    }
+
+    @Test
+    public void testRequestCollapsing() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+        for (int i = 0; i < 10; i++) {
+            final String value = StringUtils.repeat("x", i);
+            futures.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    return methods.getLength(value);
+                }
+            }));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(futures.get(i).get()).isEqualTo(i);
+        }
+        executor.shutdown();
+
+        assertThat(methods.getBatchCount()).isLessThan(10);
+    }
+
+    @Test
+    public void testRequestCache() {
+        int count = methods.getGreetingCount();
+
+        HystrixRequestContext context = HystrixRequestContext.initializeContext();
+        try {
+            assertThat(methods.getGreeting("Foo")).isEqualTo("Hello Foo");
+            assertThat(methods.getGreeting("Foo")).isEqualTo("Hello Foo");
+            assertThat(methods.getGreeting("Bar")).isEqualTo("Hello Bar");
+            assertThat(methods.getGreetingCount()).isEqualTo(count + 2);
+            // shares the circuit of getGreeting, but not its cached results
+            assertThat(methods.getFarewell("Foo")).isEqualTo("Goodbye Foo");
+        } finally {
+            context.shutdown();
+        }
+
+        methods.getGreeting("Foo");
+        assertThat(methods.getGreetingCount()).isEqualTo(count + 3);
+    }
+
+    @Test
+    public void testAsyncExecution() throws Exception {
+        Future<String> text = methods.getAsyncText();
+        assertThat(text.isDone()).isFalse();
+        assertThat(text.get()).isEqualTo("An eventual FooBar");
+
+        Future<String> failure = methods.getAsyncFailure();
+        try {
+            failure.get();
+            fail("Shouldn't get here");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(CircuitBreakerException.class);
+            assertThat(e.getCause().getCause()).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    public void testObservableExecution() {
+        int count = methods.getObservableCount();
+
+        Observable<String> text = methods.getObservableText();
+        assertThat(methods.getObservableCount()).isEqualTo(count);
+
+        assertThat(text.toList().toBlockingObservable().single()).containsExactly("An", "observable", "FooBar");
+        assertThat(methods.getObservableCount()).isEqualTo(count + 1);
+    }
+
+    @Test
+    public void testConfigurationSnapshot() {
+        methods.getCallerThread();
+
+        Map<String, String> configuration = circuitManager.getCircuitBreakerConfiguration("AnnotatedGetCallerThreadMethodGuard");
+        assertThat(configuration.get("command.executionIsolationStrategy")).isEqualTo("SEMAPHORE");
+        assertThat(configuration.get("command.executionIsolationThreadTimeoutInMilliseconds")).isEqualTo("500");
+        assertThat(configuration).includes(entry("threadpool.coreSize", "10"));
+
+        assertThat(circuitManager.getCircuitBreakerConfiguration("UnknownGuard")).isEmpty();
+    }
+
+    @Test
+    public void testConfiguredCircuitBreakers() {
+        methods.getCallerThread();
+
+        CircuitBreakerStatus status = null;
+        List<String> names = new ArrayList<String>();
+        for (CircuitBreakerDefinition definition : circuitManager.getConfiguredCircuitBreakers()) {
+            names.add(definition.getName());
+            if (definition.getName().equals("AnnotatedGetCallerThreadMethodGuard")) {
+                status = (CircuitBreakerStatus) definition;
+            }
+        }
+        assertThat(names).contains("AnnotatedGetCallerThreadMethodGuard", "AnnotatedThrowsIllegalArgumentExceptionMethodGuard");
+
+        assertThat(status.isOpen()).isFalse();
+        assertThat(status.getErrorPercentage()).isEqualTo(0);
+        assertThat(status.getConcurrentRequests()).isEqualTo(0);
+        assertThat(status.getLatencyPercentile(99)).isGreaterThanOrEqualTo(0);
+        assertThat(status.getExecutionLatency().getCount()).isGreaterThan(0);
+        assertThat(status.getQueueWaitLatency().getCount()).isGreaterThan(0);
+    }
+
     @Test
     public void testMaxConcurrency() throws Exception {
         ExecutorService executor = Executors.newFixedThreadPool(20);
@@ -0,0 +1,355 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.hystrix;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.util.ReflectionUtils;
+
+import rx.Observable;
+import rx.Observer;
+import rx.subjects.PublishSubject;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerException;
+import com.developmentsprint.spring.breaker.CircuitManager.Invoker;
+import com.developmentsprint.spring.breaker.CircuitTimeoutException;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttribute;
+import com.developmentsprint.spring.breaker.interceptor.DefaultCircuitBreakerAttribute;
+import com.developmentsprint.spring.breaker.test.CallableInvoker;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.util.HystrixRollingNumberEvent;
+
+public class HystrixCircuitManagerTest {
+
+    private final HystrixCircuitManager circuitManager = new HystrixCircuitManager();
+
+    @Before
+    public void setUp() throws Exception {
+        circuitManager.afterPropertiesSet();
+    }
+
+    @After
+    public void tearDown() {
+        circuitManager.destroy();
+    }
+
+    @Test
+    public void testDestroyRemovesConfigurationListener() {
+        int listeners = circuitManager.getConfiguration().getConfigurationListeners().size();
+        circuitManager.destroy();
+        assertThat(circuitManager.getConfiguration().getConfigurationListeners()).hasSize(listeners - 1);
+    }
+
+    @Test
+    public void testSharedCircuitNameKeepsFirstDefinition() {
+        CallableInvoker<String> first = new CallableInvoker<String>("SharedNameGuard", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return "First";
+            }
+        });
+        CallableInvoker<String> second = new CallableInvoker<String>("SharedNameGuard", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return "Second";
+            }
+        }, "circuitBreaker.forceOpen", "true");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(circuitManager.execute(first)).isEqualTo("First");
+            assertThat(circuitManager.execute(second)).isEqualTo("Second");
+        }
+
+        assertThat(circuitManager.getConfiguredCircuitBreakers()).hasSize(1);
+        assertThat(circuitManager.getCircuitBreakerConfiguration("SharedNameGuard").get("command.circuitBreakerForceOpen")).isEqualTo("false");
+    }
+
+    @Test
+    public void testEqualAttributeIsComparedOnce() {
+        final AtomicInteger comparisons = new AtomicInteger();
+        DefaultCircuitBreakerAttribute original = new DefaultCircuitBreakerAttribute() {
+            @Override
+            public boolean equals(Object other) {
+                comparisons.incrementAndGet();
+                return super.equals(other);
+            }
+        };
+        original.setName("AliasedPlanGuard");
+        DefaultCircuitBreakerAttribute refreshed = new DefaultCircuitBreakerAttribute();
+        refreshed.setName("AliasedPlanGuard");
+
+        circuitManager.prepare(new NamedInvoker(original, new Named("Original")));
+        for (int i = 0; i < 3; i++) {
+            circuitManager.prepare(new NamedInvoker(refreshed, new Named("Refreshed")));
+        }
+
+        assertThat(comparisons.get()).isEqualTo(1);
+        assertThat(circuitManager.getConfiguredCircuitBreakers()).hasSize(1);
+    }
+
+    @Test
+    public void testRedefinedAttributeReconfiguresCircuit() {
+        Named target = new Named("Redefined");
+        DefaultCircuitBreakerAttribute original = new DefaultCircuitBreakerAttribute();
+        original.setName("RedefinedGuard");
+        original.getProperties().put("execution.isolation.thread.timeoutInMilliseconds", "500");
+        original.getProperties().put("circuitBreaker.requestVolumeThreshold", "5");
+        DefaultCircuitBreakerAttribute refreshed = new DefaultCircuitBreakerAttribute();
+        refreshed.setName("RedefinedGuard");
+        refreshed.getProperties().put("execution.isolation.thread.timeoutInMilliseconds", "800");
+
+        circuitManager.prepare(new NamedInvoker(original, target));
+        circuitManager.prepare(new NamedInvoker(refreshed, target));
+
+        Map<String, String> configuration = circuitManager.getCircuitBreakerConfiguration("RedefinedGuard");
+        assertThat(configuration.get("command.executionIsolationThreadTimeoutInMilliseconds")).isEqualTo("800");
+        assertThat(configuration.get("command.circuitBreakerRequestVolumeThreshold")).isEqualTo("20");
+        assertThat(circuitManager.getConfiguredCircuitBreakers()).hasSize(1);
+    }
+
+    @Test
+    public void testSemaphoreTimeoutLeavesNoInterrupt() throws Exception {
+        CallableInvoker<String> invoker = new CallableInvoker<String>("SemaphoreTimeoutInterruptGuard", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                // ignores interrupts, so the call only returns once the timeout has passed
+                long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(150);
+                while (System.nanoTime() < end) {
+                    Thread.yield();
+                }
+                return "Late";
+            }
+        }, "execution.isolation.strategy", "SEMAPHORE", "execution.isolation.thread.timeoutInMilliseconds", "50", "interruptCallerOnTimeout", "true");
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                circuitManager.execute(invoker);
+                fail("Shouldn't get here");
+            } catch (CircuitTimeoutException e) {
+                // expected
+            }
+            assertThat(Thread.interrupted()).isFalse();
+            Thread.sleep(100L);
+            assertThat(Thread.interrupted()).isFalse();
+        }
+    }
+
+    @Test
+    public void testSemaphoreTimeoutDoesNotInterruptCallerByDefault() throws Exception {
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        CallableInvoker<String> invoker = new CallableInvoker<String>("SemaphoreTimeoutNoInterruptGuard", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                try {
+                    Thread.sleep(150L);
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+                return "Late";
+            }
+        }, "execution.isolation.strategy", "SEMAPHORE", "execution.isolation.thread.timeoutInMilliseconds", "50");
+
+        try {
+            circuitManager.execute(invoker);
+            fail("Shouldn't get here");
+        } catch (CircuitTimeoutException e) {
+            // expected once the call returns
+        }
+        assertThat(interrupted.get()).isFalse();
+    }
+
+    @Test
+    public void testWrappedObservableIsNotAwaited() {
+        final PublishSubject<String> source = PublishSubject.create();
+        RecordingObserver observer = new RecordingObserver();
+        circuitManager.wrapObservable(new CallableInvoker<Observable<String>>("WrappedObservableGuard", new Callable<Observable<String>>() {
+            @Override
+            public Observable<String> call() throws Exception {
+                return source;
+            }
+        })).subscribe(observer);
+
+        source.onNext("An");
+        source.onNext("observable");
+        assertThat(observer.events.toString()).isEqualTo("An observable ");
+        source.onCompleted();
+        assertThat(observer.events.toString()).isEqualTo("An observable COMPLETED ");
+        assertThat(getMetrics("WrappedObservableGuard").getRollingCount(HystrixRollingNumberEvent.SUCCESS)).isEqualTo(1);
+    }
+
+    @Test
+    public void testWrappedObservableFailures() throws Exception {
+        final CircuitBreakerException failure = new CircuitBreakerException("Failed");
+        RecordingObserver failed = new RecordingObserver();
+        circuitManager.wrapObservable(new CallableInvoker<Observable<String>>("WrappedObservableFailureGuard", new Callable<Observable<String>>() {
+            @Override
+            public Observable<String> call() throws Exception {
+                return Observable.error(failure);
+            }
+        })).subscribe(failed);
+        assertThat(failed.error).isSameAs(failure);
+
+        RecordingObserver timedOut = new RecordingObserver();
+        circuitManager.wrapObservable(new CallableInvoker<Observable<String>>("WrappedObservableTimeoutGuard", new Callable<Observable<String>>() {
+            @Override
+            public Observable<String> call() throws Exception {
+                return PublishSubject.create();
+            }
+        }, "execution.isolation.thread.timeoutInMilliseconds", "50")).subscribe(timedOut);
+        Thread.sleep(200L);
+        assertThat(timedOut.error).isInstanceOf(CircuitTimeoutException.class);
+        assertThat(getMetrics("WrappedObservableTimeoutGuard").getRollingCount(HystrixRollingNumberEvent.TIMEOUT)).isEqualTo(1);
+    }
+
+    @Test
+    public void testCollapsedCallsRunOnTheirOwnTarget() throws Exception {
+        final DefaultCircuitBreakerAttribute attribute = new DefaultCircuitBreakerAttribute();
+        attribute.setName("CollapsedTargetsGuard");
+        attribute.getProperties().put("batchMethod", "getNames");
+        attribute.getProperties().put("timerDelayInMilliseconds", "100");
+
+        final Named first = new Named("First");
+        final Named second = new Named("Second");
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        List<Future<String>> futures = new ArrayList<Future<String>>();
+        for (int i = 0; i < 10; i++) {
+            final Named target = (i % 2 == 0 ? first : second);
+            futures.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return circuitManager.execute(new NamedInvoker(attribute, target));
+                }
+            }));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(futures.get(i).get()).isEqualTo(i % 2 == 0 ? "First" : "Second");
+        }
+        executor.shutdown();
+    }
+
+    public static class Named {
+
+        private final String name;
+
+        public Named(String name) {
+            this.name = name;
+        }
+
+        public String getName(Object argument) {
+            throw new UnsupportedOperationException("Calls are batched through getNames");
+        }
+
+        public List<String> getNames(List<Object> arguments) {
+            List<String> names = new ArrayList<String>();
+            for (int i = 0; i < arguments.size(); i++) {
+                names.add(name);
+            }
+            return names;
+        }
+
+    }
+
+    private static class NamedInvoker implements Invoker<String> {
+
+        private static final Method GET_NAME_METHOD = ReflectionUtils.findMethod(Named.class, "getName", Object.class);
+
+        private final CircuitBreakerAttribute attribute;
+
+        private final Named target;
+
+        NamedInvoker(CircuitBreakerAttribute attribute, Named target) {
+            this.attribute = attribute;
+            this.target = target;
+        }
+
+        @Override
+        public CircuitBreakerAttribute getCircuitBreakerAttribute() {
+            return attribute;
+        }
+
+        @Override
+        public String invoke() {
+            return target.getName(null);
+        }
+
+        @Override
+        public Object getTarget() {
+            return target;
+        }
+
+        @Override
+        public Class<?> getTargetClass() {
+            return Named.class;
+        }
+
+        @Override
+        public Method getMethod() {
+            return GET_NAME_METHOD;
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return new Object[] { null };
+        }
+
+    }
+
+    private static HystrixCommandMetrics getMetrics(String name) {
+        return HystrixCommandMetrics.getInstance(HystrixCommandKey.Factory.asKey(name));
+    }
+
+    private static class RecordingObserver implements Observer<String> {
+
+        private final StringBuffer events = new StringBuffer();
+
+        private volatile Throwable error;
+
+        @Override
+        public void onNext(String item) {
+            events.append(item).append(' ');
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            error = e;
+        }
+
+        @Override
+        public void onCompleted() {
+            events.append("COMPLETED ");
+        }
+
+    }
+
+}
@@ -0,0 +1,228 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.hystrix;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import rx.Observable;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerDefinition;
+import com.developmentsprint.spring.breaker.CircuitBreakerException;
+import com.developmentsprint.spring.breaker.CircuitOverloadException;
+import com.developmentsprint.spring.breaker.CircuitTimeoutException;
+import com.developmentsprint.spring.breaker.support.CircuitBreakerEventListenerAdapter;
+import com.developmentsprint.spring.breaker.test.CallableInvoker;
+
+public class HystrixIsolationExecutorTest {
+
+    private static final Callable<String> THREAD_NAME = new Callable<String>() {
+        @Override
+        public String call() throws Exception {
+            return Thread.currentThread().getName();
+        }
+    };
+
+    private ExecutorService isolationExecutor;
+
+    private HystrixCircuitManager circuitManager;
+
+    @Before
+    public void setUp() throws Exception {
+        isolationExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "isolation-" + System.identityHashCode(r));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        circuitManager = new HystrixCircuitManager();
+        circuitManager.setIsolationExecutor(isolationExecutor);
+        circuitManager.afterPropertiesSet();
+    }
+
+    @After
+    public void tearDown() {
+        isolationExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testExecuteOnIsolationExecutor() {
+        String thread = circuitManager.execute(new CallableInvoker<String>("IsolationExecutorExecuteGuard", THREAD_NAME));
+        assertThat(thread).startsWith("isolation-");
+        assertThat(circuitManager.getCircuitBreakerConfiguration("IsolationExecutorExecuteGuard").get("command.executionIsolationStrategy"))
+                .isEqualTo("SEMAPHORE");
+    }
+
+    @Test
+    public void testQueueOnIsolationExecutor() throws Exception {
+        Future<String> thread = circuitManager.queue(new CallableInvoker<String>("IsolationExecutorQueueGuard", THREAD_NAME));
+        assertThat(thread.get(1, TimeUnit.SECONDS)).startsWith("isolation-");
+    }
+
+    @Test
+    public void testObserveOnIsolationExecutor() {
+        Observable<String> thread = circuitManager.observe(new CallableInvoker<String>("IsolationExecutorObserveGuard", THREAD_NAME));
+        assertThat(thread.toBlockingObservable().single()).startsWith("isolation-");
+    }
+
+    @Test
+    public void testExplicitIsolationStrategy() {
+        String thread = circuitManager.execute(new CallableInvoker<String>("IsolationExecutorOptOutGuard", THREAD_NAME,
+                "execution.isolation.strategy", "THREAD"));
+        assertThat(thread).startsWith("hystrix-");
+    }
+
+    @Test
+    public void testTimeout() {
+        try {
+            circuitManager.execute(new CallableInvoker<String>("IsolationExecutorTimeoutGuard", new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    Thread.sleep(5000L);
+                    return "Too late";
+                }
+            }, "execution.isolation.thread.timeoutInMilliseconds", "100"));
+            fail("Shouldn't get here");
+        } catch (CircuitTimeoutException e) {
+            assertThat(Thread.currentThread().isInterrupted()).isFalse();
+        }
+    }
+
+    @Test
+    public void testMaxConcurrency() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CallableInvoker<String> invoker = new CallableInvoker<String>("IsolationExecutorConcurrencyGuard", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                release.await();
+                return "Done";
+            }
+        }, "execution.isolation.semaphore.maxConcurrentRequests", "3", "execution.isolation.thread.timeoutInMilliseconds", "5000");
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<String>> futures = new ArrayList<Future<String>>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(callers.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return circuitManager.execute(invoker);
+                }
+            }));
+        }
+
+        Thread.sleep(500L);
+        release.countDown();
+
+        int successes = 0;
+        int rejections = 0;
+        for (Future<String> future : futures) {
+            try {
+                future.get();
+                successes++;
+            } catch (Exception e) {
+                rejections++;
+            }
+        }
+        callers.shutdown();
+
+        assertThat(successes).isEqualTo(3);
+        assertThat(rejections).isEqualTo(5);
+    }
+
+    @Test
+    public void testTimedOutTasksCountAgainstConcurrency() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        CallableInvoker<String> invoker = new CallableInvoker<String>("IsolationExecutorStrandedGuard", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                // ignores interrupts, so a timed-out call keeps running
+                while (release.getCount() > 0) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        // keep waiting
+                    }
+                }
+                return "Done";
+            }
+        }, "execution.isolation.semaphore.maxConcurrentRequests", "1", "execution.isolation.thread.timeoutInMilliseconds", "100");
+
+        try {
+            circuitManager.execute(invoker);
+            fail("Shouldn't get here");
+        } catch (CircuitTimeoutException e) {
+            // expected
+        }
+        try {
+            circuitManager.execute(invoker);
+            fail("Shouldn't get here");
+        } catch (CircuitOverloadException e) {
+            // expected, the timed-out call still runs
+        }
+
+        release.countDown();
+        Thread.sleep(100L);
+        assertThat(circuitManager.execute(invoker)).isEqualTo("Done");
+    }
+
+    @Test
+    public void testEventListener() {
+        final StringBuilder events = new StringBuilder();
+        circuitManager.setEventListener(new CircuitBreakerEventListenerAdapter() {
+            @Override
+            public void onExecution(CircuitBreakerDefinition circuitBreaker, Outcome outcome, String isolation, long queueWaitNanos, long executionNanos) {
+                events.append(outcome).append(':').append(isolation).append(' ');
+            }
+
+            @Override
+            public void onShortCircuit(CircuitBreakerDefinition circuitBreaker) {
+                events.append("SHORT_CIRCUIT ");
+            }
+
+            @Override
+            public void onStateTransition(CircuitBreakerDefinition circuitBreaker, boolean open) {
+                events.append(open ? "OPENED " : "CLOSED ");
+            }
+        });
+
+        circuitManager.execute(new CallableInvoker<String>("IsolationExecutorListenedGuard", THREAD_NAME));
+        try {
+            circuitManager.execute(new CallableInvoker<String>("IsolationExecutorForcedOpenGuard", THREAD_NAME, "circuitBreaker.forceOpen", "true"));
+            fail("Shouldn't get here");
+        } catch (CircuitBreakerException e) {
+            // expected
+        }
+
+        assertThat(events.toString()).isEqualTo("SUCCESS:EXECUTOR SHORT_CIRCUIT ");
+    }
+
+}
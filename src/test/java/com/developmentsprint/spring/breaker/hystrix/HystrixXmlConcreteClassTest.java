@@ -16,6 +16,10 @@
 package com.developmentsprint.spring.breaker.hystrix;
 
 import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.MapAssert.entry;
+
+import java.lang.reflect.Method;
+import java.util.Map;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -24,9 +28,12 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
-import com.developmentsprint.spring.breaker.CircuitManager;
 import com.developmentsprint.spring.breaker.CircuitTimeoutException;
+import com.developmentsprint.spring.breaker.InspectableCircuitManager;
 import com.developmentsprint.spring.breaker.hystrix.test.HystrixFooBar;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttribute;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttributeSource;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerInterceptor;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration(locations = "classpath:context.xml")
@@ -37,7 +44,10 @@ public class HystrixXmlConcreteClassTest {
     private HystrixFooBar methods;
 
     @Autowired
-    private CircuitManager circuitManager;
+    private InspectableCircuitManager circuitManager;
+
+    @Autowired
+    private CircuitBreakerInterceptor circuitBreakerAdvice;
 
     @Test
     public void testFallback() {
@@ -50,4 +60,21 @@ public class HystrixXmlConcreteClassTest {
         methods.getDescription();
     }
 
+    @Test
+    public void testPropertyReplacementLeavesSourceUntouched() throws Exception {
+        try {
+            methods.getDescription();
+        } catch (CircuitTimeoutException e) {
+            // expected
+        }
+
+        Method method = HystrixFooBar.class.getMethod("getDescription");
+        CircuitBreakerAttributeSource source = circuitBreakerAdvice.getCircuitBreakerAttributeSource();
+        CircuitBreakerAttribute sourceAttribute = source.getCircuitBreakerAttribute(method, HystrixFooBar.class);
+        assertThat(sourceAttribute.getProperties()).includes(entry("execution.isolation.thread.timeoutInMilliseconds", "${test-timeout}"));
+
+        Map<String, String> configuration = circuitManager.getCircuitBreakerConfiguration("GetDescMethodGuard");
+        assertThat(configuration.get("command.executionIsolationThreadTimeoutInMilliseconds")).isEqualTo("500");
+    }
+
 }
@@ -0,0 +1,49 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.hystrix.fallback;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import org.junit.Test;
+import org.springframework.context.support.StaticApplicationContext;
+
+import com.developmentsprint.spring.breaker.hystrix.test.HystrixFallback;
+
+public class HystrixFallbackRegistryTest {
+
+    @Test
+    public void testInstantiatedOnce() {
+        HystrixFallbackRegistry registry = new HystrixFallbackRegistry();
+
+        Object first = registry.getFallback(HystrixFallback.class);
+        Object second = registry.getFallback(HystrixFallback.class);
+
+        assertThat(first).isNotNull();
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    public void testBeanLookup() {
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.registerSingleton("hystrixFallback", HystrixFallback.class);
+        context.refresh();
+
+        HystrixFallbackRegistry registry = new HystrixFallbackRegistry(context);
+
+        assertThat(registry.getFallback(HystrixFallback.class)).isSameAs(context.getBean("hystrixFallback"));
+    }
+
+}
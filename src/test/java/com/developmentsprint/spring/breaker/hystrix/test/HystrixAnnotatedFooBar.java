@@ -15,10 +15,17 @@
  */
 package com.developmentsprint.spring.breaker.hystrix.test;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.AsyncResult;
+
+import rx.Observable;
 
 import com.developmentsprint.spring.breaker.annotations.CircuitBreaker;
 import com.developmentsprint.spring.breaker.annotations.CircuitProperty;
@@ -27,6 +34,12 @@ public class HystrixAnnotatedFooBar {
 
     private static final Logger log = LoggerFactory.getLogger(HystrixAnnotatedFooBar.class);
 
+    private final AtomicInteger batchCount = new AtomicInteger();
+
+    private final AtomicInteger greetingCount = new AtomicInteger();
+
+    private final AtomicInteger observableCount = new AtomicInteger();
+
     public Integer getCount() {
         log.info("Returning count");
         return 10;
@@ -67,6 +80,102 @@ public class HystrixAnnotatedFooBar {
         return "A pathetic FooBar...";
     }
 
+    @CircuitBreaker(name = "AnnotatedGetCallerThreadMethodGuard", properties = {
+            @CircuitProperty(key = "execution.isolation.strategy", value = "SEMAPHORE")
+    })
+    public String getCallerThread() {
+        return Thread.currentThread().getName();
+    }
+
+    @CircuitBreaker(name = "AnnotatedGetSlowTextMethodGuard", properties = {
+            @CircuitProperty(key = "execution.isolation.strategy", value = "SEMAPHORE"),
+            @CircuitProperty(key = "execution.isolation.thread.timeoutInMilliseconds", value = "200"),
+            @CircuitProperty(key = "interruptCallerOnTimeout", value = "true")
+    })
+    public String getSlowText() {
+        log.info("Returning slow text");
+        try {
+            Thread.sleep(5000L);
+        } catch (InterruptedException e) {
+            return "Interrupted";
+        }
+        return "A sluggish FooBar...";
+    }
+
+    @CircuitBreaker(name = "AnnotatedGetLengthMethodGuard", properties = {
+            @CircuitProperty(key = "batchMethod", value = "getLengths"),
+            @CircuitProperty(key = "timerDelayInMilliseconds", value = "100")
+    })
+    public Integer getLength(String value) {
+        throw new UnsupportedOperationException("Calls are batched through getLengths");
+    }
+
+    public List<Integer> getLengths(List<String> values) {
+        log.info("Returning lengths of {} values", values.size());
+        batchCount.incrementAndGet();
+        List<Integer> lengths = new ArrayList<Integer>();
+        for (String value : values) {
+            lengths.add(value.length());
+        }
+        return lengths;
+    }
+
+    public int getBatchCount() {
+        return batchCount.get();
+    }
+
+    @CircuitBreaker(name = "AnnotatedGetGreetingMethodGuard", properties = {
+            @CircuitProperty(key = "requestCache", value = "true")
+    })
+    public String getGreeting(String name) {
+        log.info("Returning greeting");
+        greetingCount.incrementAndGet();
+        return "Hello " + name;
+    }
+
+    @CircuitBreaker(name = "AnnotatedGetGreetingMethodGuard", properties = {
+            @CircuitProperty(key = "requestCache", value = "true")
+    })
+    public String getFarewell(String name) {
+        log.info("Returning farewell");
+        return "Goodbye " + name;
+    }
+
+    public int getGreetingCount() {
+        return greetingCount.get();
+    }
+
+    @CircuitBreaker(name = "AnnotatedGetAsyncTextMethodGuard", properties = {
+            @CircuitProperty(key = "awaitFuture", value = "true")
+    })
+    public Future<String> getAsyncText() {
+        log.info("Returning async text");
+        try {
+            Thread.sleep(300L);
+        } catch (InterruptedException e) {
+            // do nothing
+        }
+        return new AsyncResult<String>("An eventual FooBar");
+    }
+
+    @CircuitBreaker(name = "AnnotatedGetAsyncFailureMethodGuard", properties = {
+            @CircuitProperty(key = "awaitFuture", value = "true")
+    })
+    public Future<String> getAsyncFailure() {
+        throw new IllegalStateException("This was explicitly thrown");
+    }
+
+    @CircuitBreaker(name = "AnnotatedGetObservableTextMethodGuard")
+    public Observable<String> getObservableText() {
+        log.info("Returning observable text");
+        observableCount.incrementAndGet();
+        return Observable.from("An", "observable", "FooBar");
+    }
+
+    public int getObservableCount() {
+        return observableCount.get();
+    }
+
     @CircuitBreaker(name = "AnnotatedThrowsNullPointerExceptionMethodGuard")
     public String throwsNullPointerException() {
         throw new NullPointerException("This was explicitly thrown");
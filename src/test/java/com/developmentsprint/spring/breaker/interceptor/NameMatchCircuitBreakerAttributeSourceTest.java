@@ -0,0 +1,110 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.interceptor;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class NameMatchCircuitBreakerAttributeSourceTest {
+
+    private NameMatchCircuitBreakerAttributeSource source;
+
+    @Before
+    public void setup() {
+        source = new NameMatchCircuitBreakerAttributeSource();
+        source.addCircuitBreakerAttributeMethod("getName", attribute("Exact"));
+        source.addCircuitBreakerAttributeMethod("get*", attribute("Prefix"));
+        source.addCircuitBreakerAttributeMethod("getCreated*", attribute("LongerPrefix"));
+        source.addCircuitBreakerAttributeMethod("*Description", attribute("Suffix"));
+        source.addCircuitBreakerAttributeMethod("*Count*", attribute("Contains"));
+    }
+
+    @Test
+    public void testExactMatch() throws Exception {
+        assertThat(attributeOf("getName").getName()).isEqualTo("Exact");
+    }
+
+    @Test
+    public void testLongestMatch() throws Exception {
+        assertThat(attributeOf("getCreatedDate").getName()).isEqualTo("LongerPrefix");
+        assertThat(attributeOf("getDescription").getName()).isEqualTo("Suffix");
+        assertThat(attributeOf("getCount").getName()).isEqualTo("Contains");
+        assertThat(attributeOf("get").getName()).isEqualTo("Prefix");
+    }
+
+    @Test
+    public void testNoMatch() throws Exception {
+        assertThat(attributeOf("toString")).isNull();
+        assertThat(attributeOf("toString")).isNull();
+    }
+
+    @Test
+    public void testAddAfterLookup() throws Exception {
+        assertThat(attributeOf("getDescription").getName()).isEqualTo("Suffix");
+        source.addCircuitBreakerAttributeMethod("getDescription*", attribute("LongestPrefix"));
+        assertThat(attributeOf("getDescription").getName()).isEqualTo("LongestPrefix");
+    }
+
+    @Test
+    public void testOverriddenMatch() throws Exception {
+        source = new NameMatchCircuitBreakerAttributeSource() {
+            @Override
+            protected boolean isMatch(String methodName, String mappedName) {
+                return methodName.equalsIgnoreCase(mappedName);
+            }
+        };
+        source.addCircuitBreakerAttributeMethod("GETNAMES", attribute("IgnoreCase"));
+        assertThat(attributeOf("getNames").getName()).isEqualTo("IgnoreCase");
+    }
+
+    private CircuitBreakerAttribute attributeOf(String methodName) throws Exception {
+        Method method = Names.class.getMethod(methodName);
+        return source.getCircuitBreakerAttribute(method, Names.class);
+    }
+
+    private static RuleBasedCircuitBreakerAttribute attribute(String name) {
+        RuleBasedCircuitBreakerAttribute attribute = new RuleBasedCircuitBreakerAttribute();
+        attribute.setName(name);
+        return attribute;
+    }
+
+    public static class Names {
+
+        public void get() {
+        }
+
+        public void getName() {
+        }
+
+        public void getNames() {
+        }
+
+        public void getCreatedDate() {
+        }
+
+        public void getDescription() {
+        }
+
+        public void getCount() {
+        }
+
+    }
+
+}
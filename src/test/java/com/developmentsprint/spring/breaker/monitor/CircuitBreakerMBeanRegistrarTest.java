@@ -0,0 +1,129 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.monitor;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.RuntimeMBeanException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jmx.export.MBeanExporter;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerException;
+import com.developmentsprint.spring.breaker.CircuitOpenException;
+import com.developmentsprint.spring.breaker.hystrix.HystrixCircuitManager;
+import com.developmentsprint.spring.breaker.support.SimpleCircuitManager;
+import com.developmentsprint.spring.breaker.test.CallableInvoker;
+
+public class CircuitBreakerMBeanRegistrarTest {
+
+    private static final Callable<String> DEPENDENCY = new Callable<String>() {
+        @Override
+        public String call() throws Exception {
+            return "Up";
+        }
+    };
+
+    private final MBeanServer server = MBeanServerFactory.newMBeanServer();
+
+    private final MBeanExporter exporter = new MBeanExporter();
+
+    private final CircuitBreakerMBeanRegistrar registrar = new CircuitBreakerMBeanRegistrar();
+
+    @Before
+    public void setUp() throws Exception {
+        exporter.setServer(server);
+        registrar.setMbeanExporter(exporter);
+        registrar.setSnapshotIntervalInMilliseconds(0L);
+        registrar.afterPropertiesSet();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        exporter.destroy();
+    }
+
+    @Test
+    public void testSimpleCircuitBreaker() throws Exception {
+        SimpleCircuitManager circuitManager = new SimpleCircuitManager();
+        circuitManager.setMbeanRegistrar(registrar);
+        CallableInvoker<String> invoker = new CallableInvoker<String>("JmxGuard", DEPENDENCY);
+        circuitManager.execute(invoker);
+
+        ObjectName name = new ObjectName("com.developmentsprint.spring.breaker:type=CircuitBreaker,name=\"JmxGuard\"");
+        assertThat(server.getAttribute(name, "Name")).isEqualTo("JmxGuard");
+        assertThat(server.getAttribute(name, "ExecutionCount")).isEqualTo(1L);
+        assertThat(server.getAttribute(name, "ThreadPoolActiveCount")).isEqualTo(-1);
+
+        server.invoke(name, "forceOpen", null, null);
+        assertThat(server.getAttribute(name, "ForcedOpen")).isEqualTo(true);
+        try {
+            circuitManager.execute(invoker);
+            fail("Shouldn't get here");
+        } catch (CircuitOpenException e) {
+            // expected
+        }
+
+        server.invoke(name, "reset", null, null);
+        assertThat(circuitManager.execute(invoker)).isEqualTo("Up");
+
+        server.invoke(name, "updateMaxConcurrentRequests", new Object[] { 5 }, new String[] { int.class.getName() });
+        assertThat(circuitManager.getCircuitBreakerConfiguration("JmxGuard").get("execution.isolation.semaphore.maxConcurrentRequests")).isEqualTo("5");
+        try {
+            server.invoke(name, "updateTimeoutInMilliseconds", new Object[] { 100 }, new String[] { int.class.getName() });
+            fail("Shouldn't get here");
+        } catch (RuntimeMBeanException e) {
+            assertThat(e.getCause()).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    public void testHystrixCircuitBreaker() throws Exception {
+        HystrixCircuitManager circuitManager = new HystrixCircuitManager();
+        circuitManager.setMbeanRegistrar(registrar);
+        circuitManager.afterPropertiesSet();
+        CallableInvoker<String> invoker = new CallableInvoker<String>("HystrixJmxGuard", DEPENDENCY);
+        circuitManager.execute(invoker);
+
+        ObjectName name = registrar.getObjectName("HystrixJmxGuard");
+        assertThat(server.isRegistered(name)).isTrue();
+        assertThat(server.getAttribute(name, "Open")).isEqualTo(false);
+
+        server.invoke(name, "forceOpen", null, null);
+        try {
+            circuitManager.execute(invoker);
+            fail("Shouldn't get here");
+        } catch (CircuitBreakerException e) {
+            // expected
+        }
+
+        server.invoke(name, "reset", null, null);
+        assertThat(circuitManager.execute(invoker)).isEqualTo("Up");
+
+        server.invoke(name, "updateTimeoutInMilliseconds", new Object[] { 1234 }, new String[] { int.class.getName() });
+        assertThat(circuitManager.getCircuitBreakerConfiguration("HystrixJmxGuard").get("command.executionIsolationThreadTimeoutInMilliseconds"))
+                .isEqualTo("1234");
+    }
+
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.monitor;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.Callable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.developmentsprint.spring.breaker.support.SimpleCircuitManager;
+import com.developmentsprint.spring.breaker.test.CallableInvoker;
+
+public class CircuitBreakerStreamServerTest {
+
+    private final SimpleCircuitManager circuitManager = new SimpleCircuitManager();
+
+    private final CircuitBreakerStreamServer server = new CircuitBreakerStreamServer();
+
+    @Before
+    public void setUp() throws Exception {
+        circuitManager.execute(new CallableInvoker<String>("Streamed\"Guard", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return "Up";
+            }
+        }));
+
+        server.setCircuitManager(circuitManager);
+        server.setPort(0);
+        server.setIntervalInMilliseconds(50L);
+        server.afterPropertiesSet();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.destroy();
+    }
+
+    @Test
+    public void testStream() throws Exception {
+        Socket socket = new Socket("localhost", server.getPort());
+        try {
+            socket.setSoTimeout(5000);
+            OutputStream out = socket.getOutputStream();
+            out.write("GET /hystrix.stream HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes("US-ASCII"));
+            out.flush();
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "US-ASCII"));
+            assertThat(in.readLine()).isEqualTo("HTTP/1.1 200 OK");
+
+            int frames = 0;
+            String line;
+            while (frames < 2 && (line = in.readLine()) != null) {
+                if (line.startsWith("data: ")) {
+                    assertThat(line).contains("\"name\":\"Streamed\\\"Guard\"");
+                    assertThat(line).contains("\"isCircuitBreakerOpen\":false");
+                    assertThat(line).contains("\"latencyExecute\":{\"0\":");
+                    assertThat(line).endsWith("}");
+                    frames++;
+                }
+            }
+            assertThat(frames).isEqualTo(2);
+        } finally {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void testUnknownPath() throws Exception {
+        Socket socket = new Socket("localhost", server.getPort());
+        try {
+            socket.setSoTimeout(5000);
+            OutputStream out = socket.getOutputStream();
+            out.write("GET /other HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes("US-ASCII"));
+            out.flush();
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "US-ASCII"));
+            assertThat(in.readLine()).isEqualTo("HTTP/1.1 404 Not Found");
+        } finally {
+            socket.close();
+        }
+    }
+
+}
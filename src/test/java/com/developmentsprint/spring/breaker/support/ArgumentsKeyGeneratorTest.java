@@ -0,0 +1,50 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.support;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+import org.springframework.util.ReflectionUtils;
+
+public class ArgumentsKeyGeneratorTest {
+
+    private final ArgumentsKeyGenerator keyGenerator = new ArgumentsKeyGenerator();
+
+    private final Method toString = ReflectionUtils.findMethod(Object.class, "toString");
+
+    private final Method hashCode = ReflectionUtils.findMethod(Object.class, "hashCode");
+
+    @Test
+    public void testDistinctArguments() {
+        Object target = new Object();
+        assertThat(keyGenerator.generate(target, toString, "a, b")).isNotEqualTo(keyGenerator.generate(target, toString, "a", "b"));
+        assertThat(keyGenerator.generate(target, toString, (Object) null)).isNotEqualTo(keyGenerator.generate(target, toString, "null"));
+        assertThat(keyGenerator.generate(target, toString, new Object[] { new String[] { "a", "b" } })).isNotEqualTo(
+                keyGenerator.generate(target, toString, "{a, b}"));
+        assertThat(keyGenerator.generate(target, toString, "a", "b")).isEqualTo(keyGenerator.generate(target, toString, "a", "b"));
+    }
+
+    @Test
+    public void testDistinctTargetsAndMethods() {
+        Object target = new Object();
+        assertThat(keyGenerator.generate(target, toString)).isNotEqualTo(keyGenerator.generate(target, hashCode));
+        assertThat(keyGenerator.generate(target, toString)).isNotEqualTo(keyGenerator.generate(new Object(), toString));
+    }
+
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.support;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.developmentsprint.spring.breaker.annotations.AnnotationCircuitBreakerAttributeSource;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttribute;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerInterceptor;
+import com.developmentsprint.spring.breaker.test.AnnotatedFooBar;
+
+public class CircuitBreakerAttributeCacheTest {
+
+    private final AtomicInteger sourceLookups = new AtomicInteger();
+
+    private CircuitBreakerInterceptor interceptor;
+
+    private Method named;
+
+    private Method unnamed;
+
+    private Method plain;
+
+    @Before
+    public void setUp() throws Exception {
+        interceptor = new CircuitBreakerInterceptor();
+        interceptor.setCircuitBreakerAttributeSource(new AnnotationCircuitBreakerAttributeSource() {
+            @Override
+            public CircuitBreakerAttribute getCircuitBreakerAttribute(Method method, Class<?> targetClass) {
+                sourceLookups.incrementAndGet();
+                return super.getCircuitBreakerAttribute(method, targetClass);
+            }
+        });
+
+        named = AnnotatedFooBar.class.getMethod("getName");
+        unnamed = AnnotatedFooBar.class.getMethod("echo", String.class);
+        plain = Object.class.getMethod("toString");
+    }
+
+    @Test
+    public void testSourceConsultedOncePerMethod() {
+        CircuitBreakerAttribute namedAttribute = interceptor.getCircuitBreakerAttribute(named, AnnotatedFooBar.class);
+        CircuitBreakerAttribute unnamedAttribute = interceptor.getCircuitBreakerAttribute(unnamed, AnnotatedFooBar.class);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(interceptor.getCircuitBreakerAttribute(named, AnnotatedFooBar.class)).isSameAs(namedAttribute);
+            assertThat(interceptor.getCircuitBreakerAttribute(unnamed, AnnotatedFooBar.class)).isSameAs(unnamedAttribute);
+            assertThat(interceptor.getCircuitBreakerAttribute(plain, AnnotatedFooBar.class)).isNull();
+        }
+
+        assertThat(sourceLookups.get()).isEqualTo(3);
+        assertThat(unnamedAttribute.getName()).isEqualTo("echo");
+
+        interceptor.refreshCircuitBreakerAttributes();
+        interceptor.getCircuitBreakerAttribute(named, AnnotatedFooBar.class);
+        assertThat(sourceLookups.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void testCachedLookupDoesNotAllocate() {
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled());
+
+        int lookups = 100000;
+        lookup(lookups);
+
+        long threadId = Thread.currentThread().getId();
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        lookup(lookups);
+        long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+        // leave room for the allocation of the measurement itself, far below one byte per lookup
+        assertThat(allocated).isLessThan(lookups / 10);
+    }
+
+    private void lookup(int times) {
+        for (int i = 0; i < times; i++) {
+            interceptor.getCircuitBreakerAttribute(named, AnnotatedFooBar.class);
+            interceptor.getCircuitBreakerAttribute(unnamed, null);
+            interceptor.getCircuitBreakerAttribute(plain, AnnotatedFooBar.class);
+        }
+    }
+
+}
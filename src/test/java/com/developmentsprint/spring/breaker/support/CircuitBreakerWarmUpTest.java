@@ -0,0 +1,69 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.support;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.support.AnnotationConfigContextLoader;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerDefinition;
+import com.developmentsprint.spring.breaker.CircuitManager;
+import com.developmentsprint.spring.breaker.annotations.EnableCircuitBreakers;
+import com.developmentsprint.spring.breaker.test.AnnotatedFooBar;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(loader = AnnotationConfigContextLoader.class, classes = CircuitBreakerWarmUpTest.TestConfig.class)
+public class CircuitBreakerWarmUpTest {
+
+    @Autowired
+    private CircuitManager circuitManager;
+
+    @Test
+    public void testCircuitsCreatedBeforeFirstInvocation() {
+        List<String> names = new ArrayList<String>();
+        for (CircuitBreakerDefinition definition : circuitManager.getConfiguredCircuitBreakers()) {
+            names.add(definition.getName());
+        }
+        assertThat(names).containsOnly("AnnotatedGetNameMethodGuard", "AnnotatedGetCreatedDateMethodGuard", "echo");
+    }
+
+    @EnableCircuitBreakers(warmUp = true)
+    @Configuration
+    public static class TestConfig {
+
+        @Bean
+        public CircuitManager circuitManager() {
+            return new SimpleCircuitManager();
+        }
+
+        @Bean
+        public AnnotatedFooBar annotatedFooBar() {
+            return new AnnotatedFooBar();
+        }
+
+    }
+
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.support;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.StaticApplicationContext;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerException;
+import com.developmentsprint.spring.breaker.interceptor.DefaultCircuitBreakerAttribute;
+import com.developmentsprint.spring.breaker.test.CallableInvoker;
+
+public class CompositeCircuitManagerTest {
+
+    private final Callable<String> dependency = new Callable<String>() {
+        @Override
+        public String call() throws Exception {
+            return "Up";
+        }
+    };
+
+    private StaticApplicationContext context;
+
+    private SimpleCircuitManager simpleManager;
+
+    @Before
+    public void setUp() {
+        context = new StaticApplicationContext();
+        context.registerSingleton("simpleManager", SimpleCircuitManager.class);
+        context.refresh();
+        simpleManager = context.getBean("simpleManager", SimpleCircuitManager.class);
+    }
+
+    private CompositeCircuitManager createComposite(boolean fallbackToNoOp) {
+        CompositeCircuitManager composite = new CompositeCircuitManager(simpleManager);
+        composite.setFallbackToNoOpCircuitManager(fallbackToNoOp);
+        composite.setApplicationContext(context);
+        composite.afterPropertiesSet();
+        composite.onApplicationEvent(new ContextRefreshedEvent(context));
+        return composite;
+    }
+
+    private CallableInvoker<String> createInvoker(String name, String circuitManager) {
+        CallableInvoker<String> invoker = new CallableInvoker<String>(name, dependency);
+        ((DefaultCircuitBreakerAttribute) invoker.getCircuitBreakerAttribute()).setCircuitManager(circuitManager);
+        return invoker;
+    }
+
+    @Test
+    public void testRoutesToNamedManager() {
+        CompositeCircuitManager composite = createComposite(false);
+        assertThat(composite.execute(createInvoker("CompositeRouted", "simpleManager"))).isEqualTo("Up");
+        assertThat(simpleManager.getCircuitBreakerConfiguration("CompositeRouted")).isNotEmpty();
+    }
+
+    @Test
+    public void testPreparesThroughRoutedManager() {
+        CompositeCircuitManager composite = createComposite(false);
+        composite.prepare(createInvoker("CompositePrepared", "simpleManager"));
+        assertThat(simpleManager.getCircuitBreakerConfiguration("CompositePrepared")).isNotEmpty();
+    }
+
+    @Test
+    public void testConfigurationResolvedThroughRoutingTable() {
+        // the listed delegate only tells the composite which beans to route to
+        CompositeCircuitManager composite = new CompositeCircuitManager(new SimpleCircuitManager());
+        composite.setApplicationContext(context);
+        composite.afterPropertiesSet();
+        composite.onApplicationEvent(new ContextRefreshedEvent(context));
+
+        composite.execute(createInvoker("CompositeConfigured", "simpleManager"));
+        assertThat(composite.getCircuitBreakerConfiguration("CompositeConfigured")).isNotEmpty();
+    }
+
+    @Test
+    public void testFallsBackToNoOp() {
+        CompositeCircuitManager composite = createComposite(true);
+        assertThat(composite.execute(createInvoker("CompositeFallback", "unknownManager"))).isEqualTo("Up");
+        assertThat(simpleManager.getCircuitBreakerConfiguration("CompositeFallback")).isEmpty();
+    }
+
+    @Test
+    public void testUnknownManagerWithoutFallback() {
+        CompositeCircuitManager composite = createComposite(false);
+        try {
+            composite.execute(createInvoker("CompositeUnknown", "unknownManager"));
+            fail("Shouldn't get here");
+        } catch (CircuitBreakerException e) {
+            assertThat(e.getMessage()).contains("unknownManager");
+        }
+    }
+
+}
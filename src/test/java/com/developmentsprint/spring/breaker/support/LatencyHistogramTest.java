@@ -0,0 +1,97 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.support;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBuckets() {
+        for (long micros = 0; micros < 100000; micros++) {
+            long highest = LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(micros));
+            assertThat(highest).isGreaterThanOrEqualTo(micros);
+            assertThat(highest - micros).isLessThanOrEqualTo(micros / 8);
+        }
+        assertThat(LatencyHistogram.bucketOf(-1)).isEqualTo(0);
+        assertThat(LatencyHistogram.bucketOf(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKETS - 1);
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.getValueAtPercentile(99)).isEqualTo(0);
+
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+        assertThat(histogram.getCount()).isEqualTo(1000);
+        assertThat(histogram.getValueAtPercentile(50)).isGreaterThanOrEqualTo(500).isLessThanOrEqualTo(500 + 500 / 8);
+        assertThat(histogram.getValueAtPercentile(99.9)).isGreaterThanOrEqualTo(999).isLessThanOrEqualTo(999 + 999 / 8);
+        assertThat(histogram.getValueAtPercentile(100)).isGreaterThanOrEqualTo(1000);
+    }
+
+    @Test
+    public void testIntervalSwapping() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram(100L);
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(5));
+        assertThat(histogram.getCount()).isEqualTo(1);
+
+        Thread.sleep(120L);
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(5));
+        assertThat(histogram.getCount()).isEqualTo(2);
+
+        Thread.sleep(300L);
+        assertThat(histogram.getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testReadingBothIntervalsDoesNotAllocate() throws Exception {
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled());
+
+        LatencyHistogram histogram = new LatencyHistogram(200L);
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(5));
+        Thread.sleep(220L);
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(5));
+
+        double[] percentiles = { 50, 99 };
+        long[] values = new long[2];
+        int reads = 1000;
+        for (int i = 0; i < reads; i++) {
+            histogram.getValuesAtPercentiles(percentiles, values);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < reads; i++) {
+            histogram.getValuesAtPercentiles(percentiles, values);
+        }
+        long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+        // an array of both intervals per read would take at least 24 bytes each
+        assertThat(allocated).isLessThan(reads);
+    }
+
+}
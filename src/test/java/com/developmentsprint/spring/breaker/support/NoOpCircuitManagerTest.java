@@ -0,0 +1,96 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.support;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerStatus;
+import com.developmentsprint.spring.breaker.test.CallableInvoker;
+
+public class NoOpCircuitManagerTest {
+
+    private final NoOpCircuitManager circuitManager = new NoOpCircuitManager();
+
+    private final Callable<String> callerThread = new Callable<String>() {
+        @Override
+        public String call() throws Exception {
+            return Thread.currentThread().getName();
+        }
+    };
+
+    @Test
+    public void testQueueOnCallerThread() throws Exception {
+        Future<String> future = circuitManager.queue(new CallableInvoker<String>("NoOpCaller", callerThread));
+        assertThat(future.isDone()).isTrue();
+        assertThat(future.get()).isEqualTo(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void testQueueOnExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            circuitManager.setExecutor(executor);
+            Future<String> future = circuitManager.queue(new CallableInvoker<String>("NoOpExecutor", callerThread));
+            assertThat(future.get()).isNotEqualTo(Thread.currentThread().getName());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRecordsTimings() {
+        circuitManager.setRecordTimings(true);
+        CallableInvoker<String> invoker = new CallableInvoker<String>("NoOpTimed", callerThread);
+        circuitManager.execute(invoker);
+        circuitManager.execute(invoker);
+        try {
+            circuitManager.execute(new CallableInvoker<String>("NoOpTimed", new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    throw new IllegalStateException("Dependency is down");
+                }
+            }));
+            fail("Shouldn't get here");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        assertThat(circuitManager.getConfiguredCircuitBreakers()).hasSize(1);
+        CircuitBreakerStatus status = (CircuitBreakerStatus) circuitManager.getConfiguredCircuitBreakers().get(0);
+        assertThat(status.getName()).isEqualTo("NoOpTimed");
+        assertThat(status.getExecutionCount()).isEqualTo(3);
+        assertThat(status.getFailureCount()).isEqualTo(1);
+        assertThat(status.getErrorPercentage()).isEqualTo(33);
+        assertThat(status.getExecutionLatency().getCount()).isEqualTo(3);
+        assertThat(circuitManager.getCircuitBreakerConfiguration("NoOpTimed")).isEmpty();
+    }
+
+    @Test
+    public void testTimingsDisabledByDefault() {
+        assertThat(circuitManager.isRecordTimings()).isFalse();
+        assertThat(circuitManager.execute(new CallableInvoker<String>("NoOpUntimed", callerThread))).isNotNull();
+        assertThat(circuitManager.getConfiguredCircuitBreakers()).isEmpty();
+    }
+
+}
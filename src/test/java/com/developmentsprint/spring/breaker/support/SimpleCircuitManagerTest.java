@@ -0,0 +1,402 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.support;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerDefinition;
+import com.developmentsprint.spring.breaker.CircuitBreakerStatus;
+import com.developmentsprint.spring.breaker.CircuitManager.Invoker;
+import com.developmentsprint.spring.breaker.CircuitOpenException;
+import com.developmentsprint.spring.breaker.CircuitOverloadException;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttribute;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerInterceptor;
+import com.developmentsprint.spring.breaker.interceptor.NameMatchCircuitBreakerAttributeSource;
+import com.developmentsprint.spring.breaker.interceptor.RuleBasedCircuitBreakerAttribute;
+import com.developmentsprint.spring.breaker.support.SimpleCircuitBreaker.State;
+import com.developmentsprint.spring.breaker.test.CallableInvoker;
+
+public class SimpleCircuitManagerTest {
+
+    private final SimpleCircuitManager circuitManager = new SimpleCircuitManager();
+
+    private volatile boolean failing = true;
+
+    private final Callable<String> dependency = new Callable<String>() {
+        @Override
+        public String call() throws Exception {
+            if (failing) {
+                throw new IllegalStateException("Dependency is down");
+            }
+            return "Up";
+        }
+    };
+
+    @Test
+    public void testOpenAndClose() throws Exception {
+        CallableInvoker<String> invoker = new CallableInvoker<String>("SimpleGuard", dependency,
+                "circuitBreaker.requestVolumeThreshold", "4", "circuitBreaker.sleepWindowInMilliseconds", "200");
+
+        for (int i = 0; i < 4; i++) {
+            try {
+                circuitManager.execute(invoker);
+                fail("Shouldn't get here");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        }
+        assertThat(circuitManager.getCircuitBreakerConfiguration("SimpleGuard").get("state")).isEqualTo("OPEN");
+        CircuitBreakerStatus status = (CircuitBreakerStatus) circuitManager.getConfiguredCircuitBreakers().get(0);
+        assertThat(status.getName()).isEqualTo("SimpleGuard");
+        assertThat(status.isOpen()).isTrue();
+        assertThat(status.getErrorPercentage()).isEqualTo(100);
+
+        failing = false;
+        try {
+            circuitManager.execute(invoker);
+            fail("Shouldn't get here");
+        } catch (CircuitOpenException e) {
+            // expected
+        }
+
+        Thread.sleep(300L);
+        assertThat(circuitManager.execute(invoker)).isEqualTo("Up");
+        assertThat(circuitManager.getCircuitBreakerConfiguration("SimpleGuard").get("state")).isEqualTo("CLOSED");
+        assertThat(circuitManager.getCircuitBreakerConfiguration("SimpleGuard").get("errorPercentage")).isEqualTo("0");
+    }
+
+    @Test
+    public void testFailedTrialReopens() throws Exception {
+        CallableInvoker<String> invoker = new CallableInvoker<String>("SimpleTrialGuard", dependency,
+                "circuitBreaker.requestVolumeThreshold", "2", "circuitBreaker.sleepWindowInMilliseconds", "100");
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                circuitManager.execute(invoker);
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        }
+        assertThat(circuitManager.getCircuitBreakerConfiguration("SimpleTrialGuard").get("state")).isEqualTo("OPEN");
+        Thread.sleep(150L);
+        try {
+            circuitManager.execute(invoker);
+            fail("Shouldn't get here");
+        } catch (IllegalStateException e) {
+            // the trial call reached the dependency
+        }
+        try {
+            circuitManager.execute(invoker);
+            fail("Shouldn't get here");
+        } catch (CircuitOpenException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSharedNameKeepsOneCircuit() throws Exception {
+        CallableInvoker<String> first = new CallableInvoker<String>("SimpleSharedGuard", dependency, "circuitBreaker.requestVolumeThreshold", "4");
+        CallableInvoker<String> second = new CallableInvoker<String>("SimpleSharedGuard", dependency, "circuitBreaker.requestVolumeThreshold", "40");
+
+        for (int i = 0; i < 4; i++) {
+            try {
+                circuitManager.execute(i % 2 == 0 ? first : second);
+                fail("Shouldn't get here");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        }
+        assertThat(circuitManager.getConfiguredCircuitBreakers()).hasSize(1);
+        assertThat(circuitManager.getCircuitBreakerConfiguration("SimpleSharedGuard").get("state")).isEqualTo("OPEN");
+        try {
+            circuitManager.execute(second);
+            fail("Shouldn't get here");
+        } catch (CircuitOpenException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testMaxConcurrency() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CallableInvoker<String> invoker = new CallableInvoker<String>("SimpleConcurrencyGuard", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                release.await();
+                return "Done";
+            }
+        }, "execution.isolation.semaphore.maxConcurrentRequests", "2");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        circuitManager.setExecutor(executor);
+        Future<String> first = circuitManager.queue(invoker);
+        Future<String> second = circuitManager.queue(invoker);
+        Thread.sleep(200L);
+
+        try {
+            circuitManager.execute(invoker);
+            fail("Shouldn't get here");
+        } catch (CircuitOverloadException e) {
+            // expected
+        }
+
+        release.countDown();
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("Done");
+        assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("Done");
+        executor.shutdown();
+    }
+
+
+    @Test
+    public void testEventListener() throws Exception {
+        final StringBuilder events = new StringBuilder();
+        circuitManager.setEventListener(new CircuitBreakerEventListenerAdapter() {
+            @Override
+            public void onExecution(CircuitBreakerDefinition circuitBreaker, Outcome outcome, String isolation, long queueWaitNanos, long executionNanos) {
+                events.append(outcome).append(' ');
+            }
+
+            @Override
+            public void onShortCircuit(CircuitBreakerDefinition circuitBreaker) {
+                events.append("SHORT_CIRCUIT ");
+            }
+
+            @Override
+            public void onStateTransition(CircuitBreakerDefinition circuitBreaker, boolean open) {
+                events.append(open ? "OPENED " : "CLOSED ");
+            }
+        });
+        CallableInvoker<String> invoker = new CallableInvoker<String>("ListenedGuard", dependency,
+                "circuitBreaker.requestVolumeThreshold", "2", "circuitBreaker.sleepWindowInMilliseconds", "100");
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                circuitManager.execute(invoker);
+                fail("Shouldn't get here");
+            } catch (IllegalStateException e) {
+                // expected
+            } catch (CircuitOpenException e) {
+                // expected
+            }
+        }
+        failing = false;
+        Thread.sleep(200L);
+        circuitManager.execute(invoker);
+
+        assertThat(events.toString()).isEqualTo("FAILURE FAILURE OPENED SHORT_CIRCUIT SUCCESS CLOSED ");
+    }
+
+    @Test(timeout = 5000L)
+    public void testFutureMethodQueuedOnlyWhenAwaitedWithExecutor() throws Exception {
+        final FutureTask<String> pending = new FutureTask<String>(dependency);
+        RuleBasedCircuitBreakerAttribute attribute = new RuleBasedCircuitBreakerAttribute();
+        attribute.setName("AsyncGuard");
+        RuleBasedCircuitBreakerAttribute awaitedAttribute = new RuleBasedCircuitBreakerAttribute();
+        awaitedAttribute.setName("AwaitedAsyncGuard");
+        awaitedAttribute.getProperties().put(CircuitBreakerAspectSupport.AWAIT_FUTURE_PROPERTY, "true");
+        NameMatchCircuitBreakerAttributeSource attributeSource = new NameMatchCircuitBreakerAttributeSource();
+        attributeSource.addCircuitBreakerAttributeMethod("fetch", attribute);
+        attributeSource.addCircuitBreakerAttributeMethod("fetchAwaited", awaitedAttribute);
+        CircuitBreakerInterceptor interceptor = new CircuitBreakerInterceptor();
+        interceptor.setCircuitManager(circuitManager);
+        interceptor.setCircuitBreakerAttributeSource(attributeSource);
+        interceptor.afterPropertiesSet();
+        ProxyFactory proxyFactory = new ProxyFactory(new AsyncDependency() {
+            @Override
+            public Future<String> fetch() {
+                return pending;
+            }
+
+            @Override
+            public Future<String> fetchAwaited() {
+                return pending;
+            }
+        });
+        proxyFactory.addAdvice(interceptor);
+        AsyncDependency proxy = (AsyncDependency) proxyFactory.getProxy();
+
+        // without an executor the method's future is handed back instead of being waited for on the caller thread
+        assertThat(proxy.fetchAwaited()).isSameAs(pending);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        circuitManager.setExecutor(executor);
+        // futures are only waited for if the circuit asks for it
+        assertThat(proxy.fetch()).isSameAs(pending);
+        Future<String> queued = proxy.fetchAwaited();
+        assertThat(queued).isNotSameAs(pending);
+        assertThat(queued.isDone()).isFalse();
+        failing = false;
+        pending.run();
+        assertThat(queued.get()).isEqualTo("Up");
+        executor.shutdown();
+    }
+
+    @Test
+    public void testUndeclaredCheckedExceptionEndsTrial() throws Exception {
+        final CallableInvoker<String> invoker = new CallableInvoker<String>("SimpleUndeclaredGuard", dependency,
+                "circuitBreaker.requestVolumeThreshold", "2", "circuitBreaker.sleepWindowInMilliseconds", "100");
+        for (int i = 0; i < 2; i++) {
+            try {
+                circuitManager.execute(invoker);
+                fail("Shouldn't get here");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        }
+        SimpleCircuitBreaker circuitBreaker = (SimpleCircuitBreaker) circuitManager.getConfiguredCircuitBreakers().get(0);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+
+        Thread.sleep(200L);
+        try {
+            circuitManager.execute(new UndeclaredExceptionInvoker(invoker, new IOException("Dependency is down")));
+            fail("Shouldn't get here");
+        } catch (Exception e) {
+            assertThat(e).isInstanceOf(IOException.class);
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+
+        failing = false;
+        Thread.sleep(200L);
+        assertThat(circuitManager.execute(invoker)).isEqualTo("Up");
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    public void testOnlyTrialCallClosesCircuit() throws Exception {
+        final CountDownLatch[] started = { new CountDownLatch(1), new CountDownLatch(1) };
+        final CountDownLatch[] release = { new CountDownLatch(1), new CountDownLatch(1) };
+        final AtomicInteger calls = new AtomicInteger();
+        final CallableInvoker<String> invoker = new CallableInvoker<String>("SimpleTrialGuard", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                int call = calls.getAndIncrement();
+                if (call == 1 || call == 2) {
+                    throw new IllegalStateException("Dependency is down");
+                }
+                // the first call is admitted while closed, the fourth is the trial call
+                int slow = (call == 0 ? 0 : 1);
+                started[slow].countDown();
+                release[slow].await();
+                return "Slow";
+            }
+        }, "circuitBreaker.requestVolumeThreshold", "2", "circuitBreaker.sleepWindowInMilliseconds", "100");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        circuitManager.setExecutor(executor);
+        Future<String> closedCall = circuitManager.queue(invoker);
+        started[0].await();
+        for (int i = 0; i < 2; i++) {
+            try {
+                circuitManager.execute(invoker);
+                fail("Shouldn't get here");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        }
+        SimpleCircuitBreaker circuitBreaker = (SimpleCircuitBreaker) circuitManager.getConfiguredCircuitBreakers().get(0);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+
+        Thread.sleep(200L);
+        Future<String> trialCall = circuitManager.queue(invoker);
+        started[1].await();
+        assertThat(circuitBreaker.getState()).isEqualTo(State.HALF_OPEN);
+
+        release[0].countDown();
+        assertThat(closedCall.get()).isEqualTo("Slow");
+        assertThat(circuitBreaker.getState()).isEqualTo(State.HALF_OPEN);
+
+        release[1].countDown();
+        assertThat(trialCall.get()).isEqualTo("Slow");
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+        executor.shutdown();
+    }
+
+    public interface AsyncDependency {
+
+        Future<String> fetch();
+
+        Future<String> fetchAwaited();
+
+    }
+
+    /**
+     * Throws a checked exception the invoker does not declare, as an AspectJ proceed may.
+     */
+    private static class UndeclaredExceptionInvoker implements Invoker<String> {
+
+        private final Invoker<String> delegate;
+
+        private final Exception exception;
+
+        UndeclaredExceptionInvoker(Invoker<String> delegate, Exception exception) {
+            this.delegate = delegate;
+            this.exception = exception;
+        }
+
+        @Override
+        public CircuitBreakerAttribute getCircuitBreakerAttribute() {
+            return delegate.getCircuitBreakerAttribute();
+        }
+
+        @Override
+        public String invoke() {
+            UndeclaredExceptionInvoker.<RuntimeException> throwUndeclared(exception);
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <E extends Exception> void throwUndeclared(Exception e) throws E {
+            throw (E) e;
+        }
+
+        @Override
+        public Object getTarget() {
+            return delegate.getTarget();
+        }
+
+        @Override
+        public Class<?> getTargetClass() {
+            return delegate.getTargetClass();
+        }
+
+        @Override
+        public Method getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return delegate.getArguments();
+        }
+
+    }
+
+}
@@ -48,4 +48,10 @@ public class AnnotatedFooBar {
         return new Date();
     }
 
+    @CircuitBreaker
+    public String echo(String text) {
+        log.info("Echoing text");
+        return text;
+    }
+
 }
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2014 Development Sprint, LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.developmentsprint.spring.breaker.test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+
+import org.springframework.util.ReflectionUtils;
+
+import com.developmentsprint.spring.breaker.CircuitBreakerException;
+import com.developmentsprint.spring.breaker.CircuitManager.Invoker;
+import com.developmentsprint.spring.breaker.interceptor.CircuitBreakerAttribute;
+import com.developmentsprint.spring.breaker.interceptor.DefaultCircuitBreakerAttribute;
+
+/**
+ * {@link Invoker} that calls a {@link Callable}, for driving a circuit manager directly.
+ */
+public class CallableInvoker<T> implements Invoker<T> {
+
+    private static final Method CALL_METHOD = ReflectionUtils.findMethod(Callable.class, "call");
+
+    private final DefaultCircuitBreakerAttribute attribute = new DefaultCircuitBreakerAttribute();
+
+    private final Callable<T> callable;
+
+    public CallableInvoker(String name, Callable<T> callable, String... properties) {
+        this.callable = callable;
+        this.attribute.setName(name);
+        for (int i = 0; i < properties.length; i += 2) {
+            this.attribute.getProperties().put(properties[i], properties[i + 1]);
+        }
+    }
+
+    @Override
+    public CircuitBreakerAttribute getCircuitBreakerAttribute() {
+        return attribute;
+    }
+
+    @Override
+    public T invoke() {
+        try {
+            return callable.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CircuitBreakerException(e);
+        }
+    }
+
+    @Override
+    public Object getTarget() {
+        return callable;
+    }
+
+    @Override
+    public Class<?> getTargetClass() {
+        return callable.getClass();
+    }
+
+    @Override
+    public Method getMethod() {
+        return CALL_METHOD;
+    }
+
+    @Override
+    public Object[] getArguments() {
+        return new Object[0];
+    }
+
+}